@@ -0,0 +1,149 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import static cc.co.evenprime.bukkit.nocheat.bench.TestUtil.check;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.PlayerChatEvent;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+
+/**
+ * Let several threads chat at once, like the chat threads of a server do,
+ * and see that they don't ask bukkit anything, that no message gets lost
+ * when counting and that the other actions run on the main thread. Players
+ * the main thread knows nothing about, or nothing recent, still get checked.
+ *
+ */
+public class ChatThreadTest {
+
+    // Default limit of the spam check, per 5 seconds
+    private static final int LIMIT = 5;
+
+    public static void main(String[] args) throws Exception {
+
+        final File folder = TestUtil.createTempFolder("chat");
+        TestUtil.writeConfig(folder, "logging.consolelevel = off", "permissions.refreshinterval = 1");
+
+        final FakeServer server = new FakeServer();
+        final FakeWorld world = new FakeWorld("world", 64);
+        server.worlds.add(world.world);
+
+        final NoCheat plugin = server.enable(folder);
+
+        for(int i = 0; i < 60; i++) {
+            server.tick();
+        }
+
+        final FakePlayer player = server.join("chatter", world.world, 0.5D, 64.0D, 0.5D);
+
+        // The main thread didn't look at the configuration and permissions
+        // of the player yet
+        check(chat(server, player, 2, 20) == 2 * 20 - LIMIT, "messages get checked before the main thread knows the player");
+        check(player.otherThreadCalls.isEmpty(), "other threads don't ask bukkit");
+
+        newTimeframe(server);
+        server.broadcasts.clear();
+
+        // The move check makes the main thread ask for all of that
+        final Location to = player.getLocation();
+        to.setX(to.getX() + 0.1D);
+        server.move(player, to);
+
+        newTimeframe(server);
+
+        check(chat(server, player, 4, 50) == 4 * 50 - LIMIT, "exactly the messages above the limit get cancelled");
+        check(player.otherThreadCalls.isEmpty(), "other threads still don't ask bukkit");
+
+        // The command action of this version of NoCheat broadcasts the
+        // command instead of running it
+        check(server.broadcasts.isEmpty(), "other threads don't run command actions");
+        server.tick();
+        check(server.broadcasts.contains("kick chatter"), "the main thread runs the kick command action later");
+
+        // The player stays idle for longer than the permissions may be
+        // cached, then spams
+        Thread.sleep(1500);
+        newTimeframe(server);
+
+        check(chat(server, player, 2, 20) == 2 * 20 - LIMIT, "messages get checked after the player was idle for a while");
+
+        // A new configuration, and the player still doesn't do anything the
+        // main thread would notice
+        plugin.reloadConfig(player.player);
+        server.waitForAsyncTasks();
+        server.tick();
+        check(player.messages.contains("[NoCheat] Configuration reloaded"), "the configuration got reloaded");
+
+        newTimeframe(server);
+
+        check(chat(server, player, 2, 20) == 2 * 20 - LIMIT, "messages get checked after a reload of the configuration");
+
+        // Permissions that changed while the player was idle count once the
+        // main thread looked at them again
+        player.permissions.add("nocheat.checks.chat");
+        Thread.sleep(1500);
+        newTimeframe(server);
+
+        check(chat(server, player, 2, 20) == 0, "messages of players allowed to chat anything don't get checked");
+        check(player.otherThreadCalls.isEmpty(), "other threads never ask bukkit");
+
+        plugin.onDisable();
+
+        TestUtil.finish("ChatThreadTest");
+    }
+
+    /**
+     * Let enough ingame seconds pass to start a new timeframe for the spam
+     * check
+     */
+    private static void newTimeframe(FakeServer server) {
+        for(int i = 0; i < 120; i++) {
+            server.tick();
+        }
+    }
+
+    /**
+     * Let some threads send messages all at once
+     *
+     * @return how many messages got cancelled
+     */
+    private static int chat(final FakeServer server, final FakePlayer player, int threads, final int messages) throws InterruptedException {
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger cancelled = new AtomicInteger();
+        final Thread[] chatThreads = new Thread[threads];
+
+        for(int t = 0; t < threads; t++) {
+            chatThreads[t] = new Thread("Chat thread " + t) {
+
+                public void run() {
+                    try {
+                        start.await();
+                    } catch(InterruptedException e) {
+                        return;
+                    }
+                    for(int i = 0; i < messages; i++) {
+                        final PlayerChatEvent event = new PlayerChatEvent(player.player, getName() + " says " + i);
+                        server.fire(Event.Type.PLAYER_CHAT, event);
+                        if(event.isCancelled())
+                            cancelled.incrementAndGet();
+                    }
+                }
+            };
+            chatThreads[t].start();
+        }
+
+        start.countDown();
+
+        for(Thread t : chatThreads) {
+            t.join();
+        }
+
+        return cancelled.get();
+    }
+}
@@ -0,0 +1,131 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * A player without a client behind it. Its state is set directly by the
+ * benchmark or test that uses it. It has no permissions and isn't op, so
+ * every check applies to it.
+ *
+ */
+public class FakePlayer implements InvocationHandler {
+
+    private static int          nextEntityId     = 1;
+
+    private final FakeServer    server;
+    private final String        name;
+    private final int           entityId;
+
+    public World                world;
+    public double               x, y, z;
+    public float                yaw, pitch;
+    public boolean              sneaking;
+    public boolean              sprinting;
+    public boolean              insideVehicle;
+    public boolean              dead;
+    public boolean              online           = true;
+
+    // Everything NoCheat told the player
+    public final List<String>   messages         = new ArrayList<String>();
+
+    // Methods other threads than the main thread called, except getName
+    public final List<String>   otherThreadCalls = Collections.synchronizedList(new ArrayList<String>());
+
+    // Permission nodes the player has
+    public final Set<String>    permissions      = Collections.synchronizedSet(new HashSet<String>());
+
+    public final Player         player;
+
+    public FakePlayer(FakeServer server, String name, World world, double x, double y, double z) {
+        this.server = server;
+        this.name = name;
+        this.entityId = nextEntityId++;
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] {Player.class}, this);
+    }
+
+    public Location getLocation() {
+        return new Location(world, x, y, z, yaw, pitch);
+    }
+
+    public void setLocation(Location l) {
+        world = l.getWorld();
+        x = l.getX();
+        y = l.getY();
+        z = l.getZ();
+        yaw = l.getYaw();
+        pitch = l.getPitch();
+    }
+
+    /**
+     * Turn the head towards a point, like the minecraft client does
+     */
+    public void lookAt(double targetX, double targetY, double targetZ) {
+        final double dx = targetX - x;
+        final double dy = targetY - (y + (sneaking ? 1.54D : 1.62D));
+        final double dz = targetZ - z;
+        yaw = (float) Math.toDegrees(Math.atan2(-dx, dz));
+        pitch = (float) Math.toDegrees(-Math.atan2(dy, Math.sqrt(dx * dx + dz * dz)));
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        final String m = method.getName();
+
+        if(Thread.currentThread() != server.mainThread && !m.equals("getName")) {
+            otherThreadCalls.add(m);
+        }
+
+        if(m.equals("getName") || m.equals("getDisplayName")) {
+            return name;
+        } else if(m.equals("getWorld")) {
+            return world;
+        } else if(m.equals("getLocation") && args == null) {
+            return getLocation();
+        } else if(m.equals("getEyeLocation")) {
+            return new Location(world, x, y + 1.62D, z, yaw, pitch);
+        } else if(m.equals("getEyeHeight")) {
+            return sneaking ? 1.54D : 1.62D;
+        } else if(m.equals("teleport") && args.length == 1 && args[0] instanceof Location) {
+            setLocation((Location) args[0]);
+            return true;
+        } else if(m.equals("isSneaking")) {
+            return sneaking;
+        } else if(m.equals("isSprinting")) {
+            return sprinting;
+        } else if(m.equals("isInsideVehicle")) {
+            return insideVehicle;
+        } else if(m.equals("isDead")) {
+            return dead;
+        } else if(m.equals("isOnline")) {
+            return online;
+        } else if(m.equals("hasPermission") && args[0] instanceof String) {
+            return permissions.contains(args[0]);
+        } else if(m.equals("getEntityId")) {
+            return entityId;
+        } else if(m.equals("getServer")) {
+            return server.server;
+        } else if(m.equals("sendMessage")) {
+            messages.add(String.valueOf(args[0]));
+            return null;
+        } else if(m.equals("toString")) {
+            return "FakePlayer{" + name + "}";
+        }
+
+        return FakeServer.defaultValue(proxy, method, args);
+    }
+}
@@ -0,0 +1,438 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+
+/**
+ * A server without minecraft behind it, to run NoCheat outside of
+ * CraftBukkit. It remembers the listeners and tasks NoCheat registers, hands
+ * events to the listeners when asked to and runs the tasks when "tick" gets
+ * called. Only the methods NoCheat uses are implemented, everything else
+ * returns 0, false, null or something empty.
+ *
+ */
+public class FakeServer implements InvocationHandler {
+
+    private static final class RegisteredListener {
+
+        private final Event.Type     type;
+        private final Listener       listener;
+        private final Event.Priority priority;
+        private final Method         method;
+
+        private RegisteredListener(Event.Type type, Listener listener, Event.Priority priority) {
+            this.type = type;
+            this.listener = listener;
+            this.priority = priority;
+            this.method = findMethod(listener.getClass(), methodName(type));
+        }
+    }
+
+    private static final class Task {
+
+        private final int      id;
+        private final Runnable runnable;
+        private final long     period;
+        private long           nextTick;
+
+        private Task(int id, Runnable runnable, long nextTick, long period) {
+            this.id = id;
+            this.runnable = runnable;
+            this.nextTick = nextTick;
+            this.period = period;
+        }
+    }
+
+    // Boxed once, so asking a proxy for something it doesn't know creates no
+    // garbage
+    private static final Integer   ZERO_INT    = Integer.valueOf(0);
+    private static final Long      ZERO_LONG   = Long.valueOf(0L);
+    private static final Double    ZERO_DOUBLE = Double.valueOf(0.0D);
+    private static final Float     ZERO_FLOAT  = Float.valueOf(0.0F);
+    private static final Short     ZERO_SHORT  = Short.valueOf((short) 0);
+    private static final Byte      ZERO_BYTE   = Byte.valueOf((byte) 0);
+    private static final Character ZERO_CHAR   = Character.valueOf((char) 0);
+
+    private final List<RegisteredListener> listeners    = new ArrayList<RegisteredListener>();
+    private final List<Task>               tasks        = new LinkedList<Task>();
+    private final Set<Integer>             cancelled    = new HashSet<Integer>();
+    private final List<Thread>             asyncTasks   = new ArrayList<Thread>();
+    private int                            nextTaskId   = 1;
+    private long                           tick;
+
+    public final List<FakePlayer>          players      = new ArrayList<FakePlayer>();
+    public final List<World>               worlds       = new ArrayList<World>();
+
+    // Commands that were run by NoCheat as the console
+    public final List<String>              commands     = new ArrayList<String>();
+
+    // Messages that were sent to all players
+    public final List<String>              broadcasts   = new ArrayList<String>();
+
+    // The thread that created the server is its main thread
+    public final Thread                    mainThread   = Thread.currentThread();
+
+    public final Server                    server;
+    private final PluginManager            pluginManager;
+    private final BukkitScheduler          scheduler;
+
+    public FakeServer() {
+        this.server = (Server) proxy(Server.class);
+        this.pluginManager = (PluginManager) proxy(PluginManager.class);
+        this.scheduler = (BukkitScheduler) proxy(BukkitScheduler.class);
+    }
+
+    private Object proxy(Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, this);
+    }
+
+    /**
+     * Create NoCheat like bukkit would and enable it. The configuration files
+     * are read from and written to "folder".
+     */
+    public NoCheat enable(File folder) throws Exception {
+
+        folder.mkdirs();
+
+        // Bukkit only accepts the first server, so all FakeServers of the
+        // same program share that one for the few static calls
+        if(Bukkit.getServer() == null) {
+            Bukkit.setServer(server);
+        }
+
+        final NoCheat plugin = new NoCheat();
+        final PluginDescriptionFile description = new PluginDescriptionFile("NoCheat", "bench", NoCheat.class.getName());
+
+        // Bukkit doesn't want plugins to do this, so it's not public
+        Method initialize = null;
+        for(Method m : JavaPlugin.class.getDeclaredMethods()) {
+            if(m.getName().equals("initialize")) {
+                initialize = m;
+            }
+        }
+        initialize.setAccessible(true);
+        initialize.invoke(plugin, null, server, description, folder, new File(folder, "NoCheat.jar"), FakeServer.class.getClassLoader());
+
+        plugin.onEnable();
+
+        return plugin;
+    }
+
+    /**
+     * Let a player join, as far as NoCheat can tell
+     */
+    public FakePlayer join(String name, World world, double x, double y, double z) {
+        final FakePlayer player = new FakePlayer(this, name, world, x, y, z);
+        join(player);
+        return player;
+    }
+
+    public void join(FakePlayer player) {
+        players.add(player);
+        fire(Event.Type.PLAYER_JOIN, new org.bukkit.event.player.PlayerJoinEvent(player.player, player.player.getName() + " joined"));
+    }
+
+    /**
+     * Move a player like CraftBukkit does. If a listener cancels the move,
+     * the player stays where he was. If a listener changes the target, the
+     * player gets teleported there, which fires a teleport event.
+     *
+     * @return true if the player didn't end up at "to"
+     */
+    public boolean move(FakePlayer player, Location to) {
+
+        final Location from = player.getLocation();
+        final PlayerMoveEvent event = new PlayerMoveEvent(player.player, from, to);
+        fire(Event.Type.PLAYER_MOVE, event);
+
+        if(event.isCancelled()) {
+            player.setLocation(from);
+            return true;
+        }
+
+        if(event.getTo() != to) {
+            final PlayerTeleportEvent teleport = new PlayerTeleportEvent(player.player, from, event.getTo());
+            fire(Event.Type.PLAYER_TELEPORT, teleport);
+            player.setLocation(teleport.isCancelled() ? from : teleport.getTo());
+            return true;
+        }
+
+        player.setLocation(to);
+        return false;
+    }
+
+    public void quit(FakePlayer player) {
+        fire(Event.Type.PLAYER_QUIT, new org.bukkit.event.player.PlayerQuitEvent(player.player, player.player.getName() + " left"));
+        player.online = false;
+        players.remove(player);
+    }
+
+    /**
+     * Hand an event to all listeners that registered for it, lowest priority
+     * first
+     */
+    public void fire(Event.Type type, Event event) {
+
+        for(Event.Priority priority : Event.Priority.values()) {
+            for(RegisteredListener l : listeners) {
+                if(l.type == type && l.priority == priority && l.method != null) {
+                    try {
+                        l.method.invoke(l.listener, event);
+                    } catch(InvocationTargetException e) {
+                        throw new RuntimeException(e.getCause());
+                    } catch(IllegalAccessException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getListenerCount(Event.Type type) {
+        return getListeners(type).size();
+    }
+
+    /**
+     * The listeners that registered for an event, to call them directly
+     */
+    public List<Listener> getListeners(Event.Type type) {
+        final List<Listener> result = new ArrayList<Listener>();
+        for(RegisteredListener l : listeners) {
+            if(l.type == type)
+                result.add(l.listener);
+        }
+        return result;
+    }
+
+    /**
+     * Run everything that's due during the next tick, like the main thread of
+     * the server would
+     */
+    public void tick() {
+
+        tick++;
+
+        final List<Task> due;
+        synchronized(tasks) {
+            due = new ArrayList<Task>(tasks);
+        }
+
+        for(Task task : due) {
+
+            if(cancelled.contains(task.id) || task.nextTick > tick)
+                continue;
+
+            task.runnable.run();
+
+            if(task.period > 0) {
+                task.nextTick += task.period;
+            } else {
+                cancelled.add(task.id);
+            }
+        }
+
+        synchronized(tasks) {
+            for(java.util.Iterator<Task> it = tasks.iterator(); it.hasNext();) {
+                if(cancelled.contains(it.next().id))
+                    it.remove();
+            }
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Wait until all tasks that were handed to other threads are done
+     */
+    public void waitForAsyncTasks() throws InterruptedException {
+        while(true) {
+            final Thread t;
+            synchronized(asyncTasks) {
+                if(asyncTasks.isEmpty())
+                    return;
+                t = asyncTasks.remove(0);
+            }
+            t.join();
+        }
+    }
+
+    // Like bukkit, tasks may be scheduled by any thread
+    private int schedule(Runnable runnable, long delay, long period) {
+        synchronized(tasks) {
+            final Task task = new Task(nextTaskId++, runnable, tick + Math.max(1, delay), period);
+            tasks.add(task);
+            return task.id;
+        }
+    }
+
+    private int scheduleAsync(Runnable runnable) {
+        final Thread t = new Thread(runnable, "Fake async task");
+        synchronized(asyncTasks) {
+            asyncTasks.add(t);
+        }
+        t.start();
+        synchronized(tasks) {
+            return nextTaskId++;
+        }
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        final String m = method.getName();
+
+        if(proxy == server) {
+            if(m.equals("getPluginManager")) {
+                return pluginManager;
+            } else if(m.equals("getScheduler")) {
+                return scheduler;
+            } else if(m.equals("getOnlinePlayers")) {
+                final Player[] online = new Player[players.size()];
+                for(int i = 0; i < online.length; i++) {
+                    online[i] = players.get(i).player;
+                }
+                return online;
+            } else if(m.equals("getWorlds")) {
+                return Collections.unmodifiableList(worlds);
+            } else if(m.equals("getPlayerExact")) {
+                for(FakePlayer p : players) {
+                    if(p.player.getName().equals(args[0]))
+                        return p.player;
+                }
+                return null;
+            } else if(m.equals("getPlayer")) {
+                // Bukkit also accepts the start of a name
+                for(FakePlayer p : players) {
+                    if(p.player.getName().toLowerCase().startsWith(((String) args[0]).toLowerCase()))
+                        return p.player;
+                }
+                return null;
+            } else if(m.equals("dispatchCommand")) {
+                commands.add((String) args[1]);
+                return true;
+            } else if(m.equals("broadcastMessage")) {
+                broadcasts.add((String) args[0]);
+                return players.size();
+            }
+        } else if(proxy == pluginManager) {
+            if(m.equals("registerEvent") && args.length == 4 && args[0] instanceof Event.Type) {
+                listeners.add(new RegisteredListener((Event.Type) args[0], (Listener) args[1], (Event.Priority) args[2]));
+                return null;
+            }
+        } else if(proxy == scheduler) {
+            if(m.equals("scheduleSyncRepeatingTask")) {
+                return schedule((Runnable) args[1], (Long) args[2], (Long) args[3]);
+            } else if(m.equals("scheduleSyncDelayedTask")) {
+                return schedule((Runnable) args[1], args.length > 2 ? (Long) args[2] : 0, 0);
+            } else if(m.equals("scheduleAsyncDelayedTask")) {
+                return scheduleAsync((Runnable) args[1]);
+            } else if(m.equals("cancelTask")) {
+                cancelled.add((Integer) args[0]);
+                return null;
+            } else if(m.equals("cancelTasks")) {
+                synchronized(tasks) {
+                    for(Task task : tasks) {
+                        cancelled.add(task.id);
+                    }
+                }
+                return null;
+            }
+        }
+
+        return defaultValue(proxy, method, args);
+    }
+
+    /**
+     * What a proxy returns for methods that aren't implemented
+     */
+    static Object defaultValue(Object proxy, Method method, Object[] args) {
+
+        final String m = method.getName();
+        final Class<?> type = method.getReturnType();
+
+        if(m.equals("equals") && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if(m.equals("hashCode") && args == null) {
+            return System.identityHashCode(proxy);
+        } else if(m.equals("toString") && args == null) {
+            return "Fake" + proxy.getClass().getInterfaces()[0].getSimpleName();
+        }
+
+        if(type == boolean.class) {
+            return Boolean.FALSE;
+        } else if(type == int.class) {
+            return ZERO_INT;
+        } else if(type == long.class) {
+            return ZERO_LONG;
+        } else if(type == double.class) {
+            return ZERO_DOUBLE;
+        } else if(type == float.class) {
+            return ZERO_FLOAT;
+        } else if(type == short.class) {
+            return ZERO_SHORT;
+        } else if(type == byte.class) {
+            return ZERO_BYTE;
+        } else if(type == char.class) {
+            return ZERO_CHAR;
+        } else if(type.isArray()) {
+            return Array.newInstance(type.getComponentType(), 0);
+        } else if(type == List.class) {
+            return Collections.emptyList();
+        } else if(type == Set.class) {
+            return Collections.emptySet();
+        } else if(type == Map.class) {
+            return Collections.emptyMap();
+        }
+
+        return null;
+    }
+
+    /**
+     * PLAYER_MOVE -> onPlayerMove
+     */
+    private static String methodName(Event.Type type) {
+        final StringBuilder name = new StringBuilder("on");
+        for(String part : type.name().split("_")) {
+            name.append(part.charAt(0)).append(part.substring(1).toLowerCase());
+        }
+        return name.toString();
+    }
+
+    private static Method findMethod(Class<?> c, String name) {
+        for(Method m : c.getMethods()) {
+            if(m.getName().equals(name) && m.getParameterTypes().length == 1) {
+                m.setAccessible(true);
+                return m;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,113 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * A world without a server behind it. Everything below "groundLevel" is
+ * stone, everything else air, unless single blocks were set to something
+ * else. Only the methods NoCheat uses are implemented.
+ *
+ */
+public class FakeWorld implements InvocationHandler {
+
+    /**
+     * A block of this world, that always shows the current type
+     */
+    private final class FakeBlock implements InvocationHandler {
+
+        private final int x, y, z;
+
+        private FakeBlock(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            final String m = method.getName();
+
+            if(m.equals("getX")) {
+                return x;
+            } else if(m.equals("getY")) {
+                return y;
+            } else if(m.equals("getZ")) {
+                return z;
+            } else if(m.equals("getWorld")) {
+                return world;
+            } else if(m.equals("getTypeId")) {
+                return getBlockTypeId(x, y, z);
+            } else if(m.equals("getType")) {
+                return Material.getMaterial(getBlockTypeId(x, y, z));
+            } else if(m.equals("isEmpty")) {
+                return getBlockTypeId(x, y, z) == 0;
+            }
+
+            return FakeServer.defaultValue(proxy, method, args);
+        }
+    }
+
+    private static final int        STONE = 1;
+
+    private final String            name;
+    private final int               groundLevel;
+    private final Map<Long, Integer> blocks = new HashMap<Long, Integer>();
+
+    // Counts how often NoCheat asked for a block
+    private long                    reads;
+
+    public final World              world;
+
+    public FakeWorld(String name, int groundLevel) {
+        this.name = name;
+        this.groundLevel = groundLevel;
+        this.world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] {World.class}, this);
+    }
+
+    private static long key(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public void setBlockTypeId(int x, int y, int z, int id) {
+        blocks.put(key(x, y, z), id);
+    }
+
+    public int getBlockTypeId(int x, int y, int z) {
+        reads++;
+        final Integer id = blocks.get(key(x, y, z));
+        if(id != null)
+            return id;
+        return y < groundLevel ? STONE : 0;
+    }
+
+    public Block getBlockAt(int x, int y, int z) {
+        return (Block) Proxy.newProxyInstance(Block.class.getClassLoader(), new Class<?>[] {Block.class}, new FakeBlock(x, y, z));
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        final String m = method.getName();
+
+        if(m.equals("getBlockTypeIdAt") && args.length == 3) {
+            return getBlockTypeId((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+        } else if(m.equals("getBlockAt") && args.length == 3) {
+            return getBlockAt((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+        } else if(m.equals("getName")) {
+            return name;
+        }
+
+        return FakeServer.defaultValue(proxy, method, args);
+    }
+}
@@ -0,0 +1,103 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import static cc.co.evenprime.bukkit.nocheat.bench.TestUtil.check;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
+
+/**
+ * Let players walk around while NoCheat has a tiny budget per tick, and see
+ * if the governor skips the checks of the shed order, and enables them again
+ * once the players stop moving.
+ *
+ */
+public class GovernorTest {
+
+    public static void main(String[] args) throws Exception {
+
+        final File folder = TestUtil.createTempFolder("governor");
+
+        // 20 microseconds per tick are plenty while nothing happens, but not
+        // enough for 100 move events. Actions can't be skipped, so they must
+        // be left out of the order.
+        TestUtil.writeConfig(folder, "governor.active = true", "governor.budget = 20", "governor.shedorder = actions.log moving.morepackets actions.consolecommand moving.running", "timed.check = false");
+
+        final FakeServer server = new FakeServer();
+        final FakeWorld world = new FakeWorld("world", 64);
+        server.worlds.add(world.world);
+
+        final NoCheat plugin = server.enable(folder);
+
+        final Type[] order = plugin.getGovernor().getConfig().shedOrder;
+        check(order.length == 2 && order[0] == Type.MOVING_MOREPACKETS && order[1] == Type.MOVING_RUNNING, "shed order leaves out actions.log and actions.consolecommand");
+        check(server.getListenerCount(Event.Type.PLAYER_JOIN) == 1, "only one listener for players joining");
+
+        final List<FakePlayer> players = new ArrayList<FakePlayer>();
+        for(int i = 0; i < 100; i++) {
+            players.add(server.join("player" + i, world.world, i * 4 + 0.5D, 64.0D, 0.5D));
+        }
+
+        // Checks get skipped during the first ingame seconds, until NoCheat
+        // knows how laggy the server is
+        for(int i = 0; i < 60; i++) {
+            server.tick();
+        }
+
+        check(plugin.getGovernor().getLevel() == 0, "nothing is skipped while nothing happens");
+
+        for(int i = 0; i < 100; i++) {
+            walk(server, players);
+            server.tick();
+        }
+
+        check(plugin.getPerformance(Type.MOVING).getCounter() == 100 * players.size(), "all move events were measured");
+        check(plugin.getTickPerformance().getTotalTime() > 0, "time per tick includes the time of the move events");
+        check(plugin.getGovernor().getTicksOverBudget() > 0, "governor noticed that the budget was exceeded");
+        check(plugin.getGovernor().getLevel() == 2, "governor skips both checks of the shed order");
+        check(plugin.getPerformance(Type.MOVING_MOREPACKETS).getShedCounter() > 0, "moving.morepackets got skipped");
+        check(plugin.getPerformance(Type.MOVING_RUNNING).getShedCounter() > 0, "moving.running got skipped");
+
+        // Without move events NoCheat needs almost no time
+        for(int i = 0; i < 60; i++) {
+            server.tick();
+        }
+
+        check(plugin.getGovernor().getLevel() == 0, "governor enables the checks again once there is time");
+
+        final long shedRunning = plugin.getPerformance(Type.MOVING_RUNNING).getShedCounter();
+        final long running = plugin.getPerformance(Type.MOVING_RUNNING).getCounter();
+        walk(server, players);
+        check(plugin.getPerformance(Type.MOVING_RUNNING).getShedCounter() == shedRunning, "moving.running isn't skipped anymore");
+        check(plugin.getPerformance(Type.MOVING_RUNNING).getCounter() == running + players.size(), "moving.running runs again");
+
+        plugin.onDisable();
+
+        TestUtil.finish("GovernorTest");
+    }
+
+    /**
+     * Every player walks a few centimeters along the x-axis
+     */
+    private static void walk(FakeServer server, List<FakePlayer> players) {
+        for(FakePlayer p : players) {
+            final Location from = p.getLocation();
+            p.x += 0.2D;
+            final Location to = p.getLocation();
+            final PlayerMoveEvent event = new PlayerMoveEvent(p.player, from, to);
+            server.fire(Event.Type.PLAYER_MOVE, event);
+            if(event.isCancelled()) {
+                p.setLocation(from);
+            } else {
+                p.setLocation(event.getTo());
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.Bukkit;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.actions.types.Action;
+import cc.co.evenprime.bukkit.nocheat.actions.types.LogAction;
+import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
+import cc.co.evenprime.bukkit.nocheat.checks.Sight;
+import cc.co.evenprime.bukkit.nocheat.config.util.ActionList;
+import cc.co.evenprime.bukkit.nocheat.data.BaseData;
+import cc.co.evenprime.bukkit.nocheat.data.BlockTypeCache;
+import cc.co.evenprime.bukkit.nocheat.data.ExecutionHistory;
+import cc.co.evenprime.bukkit.nocheat.data.LogData;
+import cc.co.evenprime.bukkit.nocheat.data.PlayerSnapshot;
+import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
+import cc.co.evenprime.bukkit.nocheat.log.LogLevel;
+
+/**
+ * Measure the small pieces of code that run for (almost) every event, on a
+ * FakeWorld and FakePlayer. Each kernel runs a few rounds to warm up, then
+ * gets measured for some rounds. The best and the median round get
+ * reported in nanoseconds per call.
+ *
+ * Usage: KernelBenchmark [calls per round] [kernel name filter]
+ *
+ */
+public class KernelBenchmark {
+
+    /**
+     * A piece of code to measure
+     */
+    private static abstract class Kernel {
+
+        private final String name;
+
+        private Kernel(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Do the work once. "i" counts the calls, to vary the input. The
+         * result gets summed up, so the work can't be optimized away.
+         */
+        abstract long run(int i);
+    }
+
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 10;
+
+    // Keeps the results of the kernels alive
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+
+        final int calls = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        final String filter = args.length > 1 ? args[1] : "";
+
+        System.out.println("Kernel                                             best ns   median ns");
+
+        for(Kernel kernel : createKernels()) {
+            if(kernel.name.contains(filter)) {
+                measure(kernel, calls);
+            }
+        }
+    }
+
+    private static void measure(Kernel kernel, int calls) {
+
+        final List<Double> times = new ArrayList<Double>();
+
+        for(int round = 0; round < WARMUP + ROUNDS; round++) {
+            long result = 0;
+            final long start = System.nanoTime();
+            for(int i = 0; i < calls; i++) {
+                result += kernel.run(i);
+            }
+            final long time = System.nanoTime() - start;
+            sink += result;
+
+            if(round >= WARMUP) {
+                times.add((double) time / calls);
+            }
+        }
+
+        Collections.sort(times);
+
+        System.out.println(String.format("%-48s %10.1f %11.1f", kernel.name, times.get(0), times.get(times.size() / 2)));
+    }
+
+    private static List<Kernel> createKernels() {
+
+        final List<Kernel> kernels = new ArrayList<Kernel>();
+
+        // A player walking on flat ground, looking at things around him
+        final FakeServer server = new FakeServer();
+        final FakeWorld world = new FakeWorld("world", 64);
+        final FakePlayer fakePlayer = new FakePlayer(server, "bench", world.world, 0.5D, 64.0D, 0.5D);
+        fakePlayer.yaw = 45.0F;
+        fakePlayer.pitch = 10.0F;
+
+        final BaseData data = new BaseData();
+        final NoCheatPlayer player = new NoCheatPlayer(fakePlayer.player, data);
+        final PlayerSnapshot snapshot = data.snapshot.update(fakePlayer.player);
+
+        // Positions of a walk back and forth along the x-axis, 0.2 blocks per
+        // move, with jumps that go up 1.25 blocks and come down again
+        final PreciseLocation[] walk = new PreciseLocation[1024];
+        for(int i = 0; i < walk.length; i++) {
+            walk[i] = new PreciseLocation();
+            walk[i].x = 0.5D + Math.abs((i % 64) - 32) * 0.2D;
+            walk[i].y = 64.0D + Math.max(0.0D, 1.25D * Math.sin(i * Math.PI / 12));
+            walk[i].z = 0.5D;
+        }
+
+        final BlockTypeCache cache = new BlockTypeCache();
+
+        kernels.add(new Kernel("CheckUtil.isLocationOnGround (cached blocks)") {
+
+            long run(int i) {
+                return CheckUtil.isLocationOnGround(world.world, walk[i & 1023], cache);
+            }
+        });
+
+        final BlockTypeCache emptyCache = new BlockTypeCache();
+
+        kernels.add(new Kernel("CheckUtil.isLocationOnGround (empty cache)") {
+
+            long run(int i) {
+                emptyCache.reset();
+                return CheckUtil.isLocationOnGround(world.world, walk[i & 1023], emptyCache);
+            }
+        });
+
+        final Sight sight = new Sight();
+
+        // Blocks and entities within and out of reach
+        final double[] targets = new double[3 * 256];
+        for(int i = 0; i < 256; i++) {
+            targets[3 * i] = snapshot.x + 8.0D * Math.cos(i);
+            targets[3 * i + 1] = snapshot.eyeY + 2.0D * Math.sin(3 * i);
+            targets[3 * i + 2] = snapshot.z + 8.0D * Math.sin(i);
+        }
+
+        kernels.add(new Kernel("Sight.reachExcess (reach check)") {
+
+            long run(int i) {
+                final int t = 3 * (i & 255);
+                return (long) (100 * sight.set(snapshot, targets[t], targets[t + 1], targets[t + 2]).reachExcess(4.25D));
+            }
+        });
+
+        kernels.add(new Kernel("Sight.directionOff (direction check)") {
+
+            long run(int i) {
+                final int t = 3 * (i & 255);
+                return (long) (100 * sight.set(snapshot, targets[t], targets[t + 1], targets[t + 2]).directionOff(1.0D, 1.0D, 0.5D));
+            }
+        });
+
+        // Like the default moving actions: log, log more, log and cancel
+        final ActionList actionList = new ActionList();
+        final Action[] low = new Action[] {new LogAction("low", 3, 15, LogLevel.LOW, "low")};
+        final Action[] med = new Action[] {new LogAction("med", 0, 15, LogLevel.MED, "med")};
+        final Action[] high = new Action[] {new LogAction("high", 0, 15, LogLevel.HIGH, "high")};
+        actionList.setActions(0, low);
+        actionList.setActions(100, med);
+        actionList.setActions(400, high);
+
+        // The ids the ActionMapper would give them
+        low[0].setId(0);
+        med[0].setId(1);
+        high[0].setId(2);
+
+        kernels.add(new Kernel("ActionList.getActions (tresholds: 3)") {
+
+            long run(int i) {
+                return actionList.getActions(i % 600).length;
+            }
+        });
+
+        // Lists with more tresholds, one every 10 violations. The violation
+        // levels hit tresholds, lie between them and go beyond the last one.
+        for(final int count : new int[] {1, 4, 16, 64}) {
+
+            final ActionList list = new ActionList();
+            for(int t = 0; t < count; t++) {
+                list.setActions(t * 10, new Action[t % 4 + 1]);
+            }
+
+            final int range = count * 10 + 10;
+
+            kernels.add(new Kernel("ActionList.getActions (tresholds: " + count + ")") {
+
+                long run(int i) {
+                    return list.getActions(i % range).length;
+                }
+            });
+        }
+
+        final ExecutionHistory history = new ExecutionHistory();
+        final Action[] all = new Action[] {low[0], med[0], high[0]};
+
+        kernels.add(new Kernel("ExecutionHistory.executeAction") {
+
+            long run(int i) {
+                // 1000 calls per second
+                return history.executeAction(all[i % 3], i / 1000) ? 1 : 0;
+            }
+        });
+
+        final LogData log = data.log;
+        log.playerName = "bench";
+        log.check = "runfly/sprint";
+        log.violationLevel = 123;
+        log.toLocation.x = 1.5D;
+        log.toLocation.y = 65.25D;
+        log.toLocation.z = -3.125D;
+
+        final String shortText = "[player] failed [check]. VL [violations]";
+        final String longText = "[player] in [world] at [location] moving to [locationto] over distance [movedistance] failed check [check]. Total violation level so far [violations].";
+
+        final LogAction shortMessage = new LogAction("moveLogMedShort", 0, 15, LogLevel.MED, shortText);
+        final LogAction longMessage = new LogAction("moveLogMedLong", 0, 15, LogLevel.MED, longText);
+
+        // The messages as they were built before, for comparison. They find
+        // the player through Bukkit.
+        final LegacyMessage legacyShortMessage = new LegacyMessage(shortText);
+        final LegacyMessage legacyLongMessage = new LegacyMessage(longText);
+
+        if(Bukkit.getServer() == null) {
+            Bukkit.setServer(server.server);
+        }
+        server.players.add(fakePlayer);
+
+        kernels.add(new Kernel("LogAction.getLogMessage (short)") {
+
+            long run(int i) {
+                log.violationLevel = i & 1023;
+                return shortMessage.getLogMessage("NC: ", player).length();
+            }
+        });
+
+        kernels.add(new Kernel("LegacyMessage.getMessage (short)") {
+
+            long run(int i) {
+                log.violationLevel = i & 1023;
+                return ("NC: " + legacyShortMessage.getMessage(log)).length();
+            }
+        });
+
+        kernels.add(new Kernel("LogAction.getLogMessage (long)") {
+
+            long run(int i) {
+                log.violationLevel = i & 1023;
+                return longMessage.getLogMessage("NC: ", player).length();
+            }
+        });
+
+        kernels.add(new Kernel("LegacyMessage.getMessage (long)") {
+
+            long run(int i) {
+                log.violationLevel = i & 1023;
+                return ("NC: " + legacyLongMessage.getMessage(log)).length();
+            }
+        });
+
+        return kernels;
+    }
+}
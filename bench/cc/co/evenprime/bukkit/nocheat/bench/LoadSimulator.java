@@ -0,0 +1,455 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockDamageEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.bukkit.event.player.PlayerAnimationEvent;
+import org.bukkit.event.player.PlayerChatEvent;
+import org.bukkit.inventory.ItemStack;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.debug.Histogram;
+import cc.co.evenprime.bukkit.nocheat.debug.Performance;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
+
+/**
+ * Enable NoCheat on a FakeServer and let a crowd of synthetic players do
+ * things, to see how the time NoCheat needs grows with the number of
+ * players. Every tick each player does what its kind does:
+ *
+ * walkers walk in circles, dig a block and put it back every 2 seconds,
+ * hit something every second and chat every 30 seconds;
+ * sprinters run in bigger circles and hit something twice per second;
+ * fliers go up into the air and fly around there, which NoCheat stops;
+ * spammers stand still and chat 10 times per second.
+ *
+ * That drives the PlayerMove, EntityDamage, BlockBreak, BlockPlace and
+ * PlayerChat event managers. The TimedEventManager visits the players on
+ * its own, like on a server.
+ *
+ * Reported are the events per second, the time NoCheat spent per tick
+ * (measured by NoCheat itself) and how much heap NoCheat needs per player.
+ * With "-steps" the crowd doubles after each step, to find where NoCheat
+ * stops scaling. Every step uses a freshly enabled NoCheat.
+ *
+ * Usage: LoadSimulator [-walkers n] [-sprinters n] [-fliers n] [-spammers n]
+ * [-ticks n] [-steps n] [-config config.txt]
+ *
+ */
+public class LoadSimulator {
+
+    private static final int      WALKER   = 0;
+    private static final int      SPRINTER = 1;
+    private static final int      FLIER    = 2;
+    private static final int      SPAMMER  = 3;
+
+    private static final String[] KINDS    = {"walkers", "sprinters", "fliers", "spammers"};
+
+    // Where the ground is in the world of the simulation
+    private static final int      GROUND   = 64;
+
+    /**
+     * A synthetic player and what it does
+     */
+    private static final class Bot {
+
+        private final int        kind;
+        private final int        number;
+        private final FakePlayer player;
+        // Something to hit
+        private final FakePlayer target;
+
+        // Direction the bot moves to, it turns a bit with every move
+        private double           angle;
+
+        private Bot(int kind, int number, FakePlayer player, FakePlayer target) {
+            this.kind = kind;
+            this.number = number;
+            this.player = player;
+            this.target = target;
+        }
+    }
+
+    /**
+     * What happened during one step
+     */
+    private static final class Result {
+
+        private final long[] events    = new long[KINDS.length];
+        private final long[] cancelled = new long[KINDS.length];
+        private long         ticks;
+        private long         tickTime;
+        private long         tick50, tick99, tickMax;
+        private long         timedEvents;
+        private long         heapPerPlayer;
+        private long         wallTime;
+    }
+
+    private final FakeServer   server;
+    private final FakeWorld    world;
+    private final NoCheat      plugin;
+    private final List<Bot>    bots = new ArrayList<Bot>();
+
+    private final ItemStack    item = new ItemStack(1);
+
+    private LoadSimulator(List<String> configLines) throws Exception {
+
+        final File folder = TestUtil.createTempFolder("load");
+
+        final List<String> lines = new ArrayList<String>();
+        // Measure all checks, unless the configuration says otherwise
+        lines.add("governor.active = false");
+        lines.add("logging.consolelevel = off");
+        lines.addAll(configLines);
+        TestUtil.writeConfig(folder, lines.toArray(new String[lines.size()]));
+
+        server = new FakeServer();
+        world = new FakeWorld("world", GROUND);
+        server.worlds.add(world.world);
+        plugin = server.enable(folder);
+
+        // Checks get skipped during the first ingame seconds, until NoCheat
+        // knows how laggy the server is
+        for(int i = 0; i < 60; i++) {
+            server.tick();
+        }
+    }
+
+    /**
+     * Create the bots, let them join and measure how much more heap is used
+     * afterwards
+     */
+    private long populate(int[] population) {
+
+        int number = 0;
+        for(int kind = 0; kind < population.length; kind++) {
+            for(int i = 0; i < population[kind]; i++) {
+                // Everybody gets his own 16x16 area
+                final double x = (number % 64) * 16 + 8.5D;
+                final double z = (number / 64) * 16 + 8.5D;
+                final FakePlayer player = new FakePlayer(server, KINDS[kind] + number, world.world, x, GROUND, z);
+                final FakePlayer target = new FakePlayer(server, "target" + number, world.world, x, GROUND, z);
+                player.sprinting = kind == SPRINTER;
+                bots.add(new Bot(kind, number, player, target));
+                number++;
+            }
+        }
+
+        // Only NoCheat's own data should count, not the fake players
+        final long before = usedHeap();
+
+        for(Bot bot : bots) {
+            server.join(bot.player);
+        }
+
+        // Most data gets created when a player does something for the
+        // first time
+        for(int i = 0; i < 100; i++) {
+            tick(new Result());
+        }
+
+        final long after = usedHeap();
+
+        return bots.isEmpty() ? 0 : (after - before) / bots.size();
+    }
+
+    private Result run(int ticks) {
+
+        final Result result = new Result();
+
+        final Performance tickPerformance = plugin.getTickPerformance();
+        final Performance timedPerformance = plugin.getPerformance(Type.TIMED);
+
+        // Forget the ticks of the warmup
+        tickPerformance.getHistogram().clear();
+        final long tickTimeBefore = tickPerformance.getTotalTime();
+        final long ticksBefore = tickPerformance.getCounter();
+        final long timedBefore = timedPerformance.getCounter();
+
+        final long start = System.nanoTime();
+        for(int i = 0; i < ticks; i++) {
+            tick(result);
+        }
+        result.wallTime = System.nanoTime() - start;
+
+        result.tickTime = tickPerformance.getTotalTime() - tickTimeBefore;
+        result.ticks = tickPerformance.getCounter() - ticksBefore;
+        result.timedEvents = timedPerformance.getCounter() - timedBefore;
+
+        final Histogram histogram = tickPerformance.getHistogram();
+        result.tick50 = histogram.getPercentile(50);
+        result.tick99 = histogram.getPercentile(99);
+        result.tickMax = histogram.getMax();
+
+        return result;
+    }
+
+    private void tick(Result result) {
+
+        final long tick = server.getTick();
+
+        for(Bot bot : bots) {
+            // Not everybody does the same thing during the same tick
+            final long time = tick + bot.number;
+
+            switch (bot.kind) {
+            case WALKER:
+                walk(bot, 0.2D, 0.05D, result);
+                if(time % 40 == 0)
+                    dig(bot, result);
+                if(time % 20 == 0)
+                    hit(bot, result);
+                if(time % 600 == 0)
+                    chat(bot, "Hello", result);
+                break;
+            case SPRINTER:
+                walk(bot, 0.35D, 0.05D, result);
+                if(time % 10 == 0)
+                    hit(bot, result);
+                break;
+            case FLIER:
+                fly(bot, time % 60, result);
+                break;
+            case SPAMMER:
+                if(time % 2 == 0)
+                    chat(bot, "Buy cheap stuff at " + time, result);
+                break;
+            }
+        }
+
+        server.tick();
+    }
+
+    /**
+     * Move on a circle around the starting point, staying on the ground
+     */
+    private void walk(Bot bot, double distance, double turn, Result result) {
+
+        bot.angle += turn;
+
+        final FakePlayer p = bot.player;
+        final Location to = p.getLocation();
+        to.setX(to.getX() + distance * Math.cos(bot.angle));
+        to.setZ(to.getZ() + distance * Math.sin(bot.angle));
+        to.setY(GROUND);
+
+        count(bot, move(p, to), result);
+    }
+
+    /**
+     * Go up for half a second, then fly around above the ground
+     */
+    private void fly(Bot bot, long phase, Result result) {
+
+        final FakePlayer p = bot.player;
+        final Location to = p.getLocation();
+
+        if(phase < 10) {
+            to.setY(to.getY() + 0.5D);
+        } else {
+            bot.angle += 0.1D;
+            to.setX(to.getX() + 0.6D * Math.cos(bot.angle));
+            to.setZ(to.getZ() + 0.6D * Math.sin(bot.angle));
+        }
+
+        count(bot, move(p, to), result);
+    }
+
+    /**
+     * Bukkit can only tell if real players sprint, so tell NoCheat what the
+     * bot does. The snapshot stays valid until the move got handled.
+     */
+    private boolean move(FakePlayer p, Location to) {
+        plugin.getPlayer(p.player).getSnapshot().sprinting = p.sprinting;
+        return server.move(p, to);
+    }
+
+    /**
+     * Dig the ground block in front of the player, then put it back
+     */
+    private void dig(Bot bot, Result result) {
+
+        final FakePlayer p = bot.player;
+        final int x = (int) Math.floor(p.x + 2 * Math.cos(bot.angle));
+        final int z = (int) Math.floor(p.z + 2 * Math.sin(bot.angle));
+        final int y = GROUND - 1;
+
+        final Block block = world.getBlockAt(x, y, z);
+        p.lookAt(x + 0.5D, y + 0.5D, z + 0.5D);
+
+        swing(bot, result);
+        final BlockDamageEvent damage = new BlockDamageEvent(p.player, block, item, false);
+        server.fire(Event.Type.BLOCK_DAMAGE, damage);
+        count(bot, damage.isCancelled(), result);
+
+        final BlockBreakEvent breakEvent = new BlockBreakEvent(block, p.player);
+        server.fire(Event.Type.BLOCK_BREAK, breakEvent);
+        count(bot, breakEvent.isCancelled(), result);
+
+        if(!breakEvent.isCancelled()) {
+            world.setBlockTypeId(x, y, z, 0);
+        }
+
+        // Bukkit changes the block before it asks the plugins
+        final Block against = world.getBlockAt(x, y - 1, z);
+        p.lookAt(x + 0.5D, y - 0.5D, z + 0.5D);
+        world.setBlockTypeId(x, y, z, item.getTypeId());
+
+        swing(bot, result);
+        final BlockPlaceEvent place = new BlockPlaceEvent(block, null, against, item, p.player, true);
+        server.fire(Event.Type.BLOCK_PLACE, place);
+        count(bot, place.isCancelled(), result);
+
+        // Keep the ground flat, even if NoCheat didn't want the block there
+    }
+
+    /**
+     * Hit something that stands a bit in front of the player
+     */
+    private void hit(Bot bot, Result result) {
+
+        final FakePlayer p = bot.player;
+        final FakePlayer target = bot.target;
+        target.x = p.x + 2 * Math.cos(bot.angle);
+        target.y = GROUND;
+        target.z = p.z + 2 * Math.sin(bot.angle);
+        p.lookAt(target.x, target.y + 1.0D, target.z);
+
+        swing(bot, result);
+        final EntityDamageByEntityEvent event = new EntityDamageByEntityEvent(p.player, target.player, DamageCause.ENTITY_ATTACK, 1);
+        server.fire(Event.Type.ENTITY_DAMAGE, event);
+        count(bot, event.isCancelled(), result);
+    }
+
+    private void swing(Bot bot, Result result) {
+        server.fire(Event.Type.PLAYER_ANIMATION, new PlayerAnimationEvent(bot.player.player));
+        count(bot, false, result);
+    }
+
+    private void chat(Bot bot, String message, Result result) {
+        final PlayerChatEvent event = new PlayerChatEvent(bot.player.player, message);
+        server.fire(Event.Type.PLAYER_CHAT, event);
+        count(bot, event.isCancelled(), result);
+    }
+
+    private static void count(Bot bot, boolean cancelled, Result result) {
+        result.events[bot.kind]++;
+        if(cancelled)
+            result.cancelled[bot.kind]++;
+    }
+
+    private void close() throws InterruptedException {
+        plugin.onDisable();
+        server.waitForAsyncTasks();
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        final int[] population = {100, 50, 10, 10};
+        final List<String> config = new ArrayList<String>();
+        int ticks = 1200;
+        int steps = 1;
+
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            final String option = args[i];
+            final String value = args[i + 1];
+
+            if(option.equals("-ticks")) {
+                ticks = Integer.parseInt(value);
+            } else if(option.equals("-steps")) {
+                steps = Integer.parseInt(value);
+            } else if(option.equals("-config")) {
+                final BufferedReader r = new BufferedReader(new FileReader(value));
+                String line;
+                while((line = r.readLine()) != null) {
+                    config.add(line);
+                }
+                r.close();
+            } else {
+                boolean found = false;
+                for(int kind = 0; kind < KINDS.length; kind++) {
+                    if(option.equals("-" + KINDS[kind])) {
+                        population[kind] = Integer.parseInt(value);
+                        found = true;
+                    }
+                }
+                if(!found) {
+                    System.out.println("Usage: LoadSimulator [-walkers n] [-sprinters n] [-fliers n] [-spammers n] [-ticks n] [-steps n] [-config config.txt]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        for(int step = 1; step <= steps; step++) {
+
+            final LoadSimulator simulator = new LoadSimulator(config);
+            final long heapPerPlayer = simulator.populate(population);
+            final Result result = simulator.run(ticks);
+            result.heapPerPlayer = heapPerPlayer;
+            simulator.close();
+
+            print(step, population, result);
+
+            for(int kind = 0; kind < population.length; kind++) {
+                population[kind] *= 2;
+            }
+        }
+
+        // The log file writers don't stop the program
+        System.exit(0);
+    }
+
+    private static void print(int step, int[] population, Result r) {
+
+        int players = 0;
+        long events = 0;
+        final StringBuilder crowd = new StringBuilder();
+        for(int kind = 0; kind < KINDS.length; kind++) {
+            players += population[kind];
+            events += r.events[kind];
+            crowd.append(kind > 0 ? ", " : "").append(population[kind]).append(' ').append(KINDS[kind]);
+        }
+        events += r.timedEvents;
+
+        System.out.println("Step " + step + ": " + players + " players (" + crowd + "), " + r.ticks + " ticks");
+
+        final double gameSeconds = r.ticks / 20.0D;
+        System.out.println("  events: " + events + ", " + (long) (events / gameSeconds) + " per second of game time, " + (long) (events * 1000000000D / r.wallTime) + " per second of real time");
+        if(r.tickTime > 0) {
+            System.out.println("  NoCheat could handle " + (long) (events * 1000000000D / r.tickTime) + " events per second if it had a whole CPU core");
+        }
+
+        System.out.println("  time per tick: average " + Performance.toString(r.ticks > 0 ? r.tickTime / r.ticks : 0) + ", 50% " + Performance.toString(r.tick50) + ", 99% " + Performance.toString(r.tick99) + ", max " + Performance.toString(r.tickMax) + " (a tick has 50 ms)");
+        System.out.println("  heap used by NoCheat per player: " + r.heapPerPlayer / 1024 + " KB");
+
+        final StringBuilder cancelled = new StringBuilder("  cancelled events:");
+        for(int kind = 0; kind < KINDS.length; kind++) {
+            cancelled.append(' ').append(KINDS[kind]).append(' ').append(r.cancelled[kind]).append('/').append(r.events[kind]);
+        }
+        System.out.println(cancelled);
+    }
+}
@@ -0,0 +1,153 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import static cc.co.evenprime.bukkit.nocheat.bench.TestUtil.check;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.PlayerListener;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
+import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
+
+/**
+ * Let a player walk around until the JIT compiled NoCheat's move handling,
+ * then count the bytes NoCheat allocates for the move events that follow.
+ * Moves that NoCheat answers with a setback are left out, because a setback
+ * creates a new Location on purpose. The player moves much too fast now and
+ * then, to make sure of that.
+ *
+ * Only the move listener of NoCheat gets measured. Events and Locations
+ * get created by the server anyway.
+ *
+ */
+public class MoveAllocationTest {
+
+    private static final int WARMUP = 20000;
+    private static final int MOVES  = 10000;
+
+    public static void main(String[] args) throws Exception {
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+
+        if(!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("MoveAllocationTest: this JVM can't count allocated bytes");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final File folder = TestUtil.createTempFolder("allocation");
+        TestUtil.writeConfig(folder, "governor.active = false", "timed.check = false", "logging.consolelevel = off");
+
+        final FakeServer server = new FakeServer();
+        final FakeWorld world = new FakeWorld("world", 64);
+        server.worlds.add(world.world);
+
+        final NoCheat plugin = server.enable(folder);
+
+        // Checks get skipped during the first ingame seconds, until NoCheat
+        // knows how laggy the server is
+        for(int i = 0; i < 60; i++) {
+            server.tick();
+        }
+
+        final FakePlayer player = server.join("walker", world.world, 0.5D, 64.0D, 0.5D);
+
+        // Like real clients, one move per tick
+        for(int i = 0; i < WARMUP; i++) {
+            server.move(player, next(player, i));
+            server.tick();
+        }
+
+        final PlayerListener listener = (PlayerListener) server.getListeners(Event.Type.PLAYER_MOVE).get(0);
+
+        // Counting itself may cost something
+        long overhead = Long.MAX_VALUE;
+        for(int i = 0; i < 100; i++) {
+            final long start = threads.getThreadAllocatedBytes(thread);
+            overhead = Math.min(overhead, threads.getThreadAllocatedBytes(thread) - start);
+        }
+
+        long allocated = 0;
+        int measured = 0;
+        int setBacks = 0;
+        int step = WARMUP;
+
+        for(int i = 0; i < MOVES; i++) {
+
+            final Location from = player.getLocation();
+            final Location to;
+
+            // Now and then the player moves much too fast and gets set back
+            if(i % 500 == 499) {
+                to = player.getLocation();
+                to.setX(to.getX() + 3.0D);
+            } else {
+                to = next(player, step++);
+            }
+            final PlayerMoveEvent event = new PlayerMoveEvent(player.player, from, to);
+
+            // NoCheat asks bukkit for the position of the player, the blocks
+            // around him and (every few seconds) his permissions. CraftBukkit
+            // answers without creating objects, but the proxies of the fake
+            // player and world create argument arrays and Locations. So let
+            // NoCheat ask and remember the answers before counting.
+            final NoCheatPlayer ncPlayer = plugin.getPlayer(player.player);
+            ncPlayer.getSnapshot();
+            ncPlayer.hasPermission(CheckPermission.MOVE);
+            readBlocks(ncPlayer, from);
+            readBlocks(ncPlayer, to);
+
+            final long start = threads.getThreadAllocatedBytes(thread);
+            listener.onPlayerMove(event);
+            final long bytes = threads.getThreadAllocatedBytes(thread) - start - overhead;
+
+            if(event.isCancelled() || event.getTo() != to) {
+                // Let the server do the teleport of the setback
+                setBacks++;
+                player.setLocation(from);
+                server.move(player, event.getTo());
+            } else {
+                allocated += bytes;
+                measured++;
+                player.setLocation(to);
+            }
+
+            server.tick();
+        }
+
+        plugin.onDisable();
+
+        System.out.println(measured + " moves measured, " + allocated + " bytes allocated, " + setBacks + " setbacks left out");
+
+        check(setBacks > 0 && setBacks < MOVES / 100, "moving too fast causes setbacks, walking doesn't");
+        check(measured == MOVES - setBacks, "all moves without setback were measured");
+        check(allocated == 0, "moves without setback allocate nothing");
+
+        TestUtil.finish("MoveAllocationTest");
+    }
+
+    private static void readBlocks(NoCheatPlayer player, Location location) {
+        final PreciseLocation l = new PreciseLocation();
+        l.set(location);
+        CheckUtil.isLocationOnGround(location.getWorld(), l, player.getData().moving.blockTypes);
+    }
+
+    /**
+     * Walk back and forth along the x-axis, 0.2 blocks per move, and jump
+     * now and then
+     */
+    private static Location next(FakePlayer player, int i) {
+        final Location to = player.getLocation();
+        to.setX(0.5D + Math.abs((i % 64) - 32) * 0.2D);
+        to.setY(64.0D + Math.max(0.0D, 1.25D * Math.sin(i * Math.PI / 12)));
+        return to;
+    }
+}
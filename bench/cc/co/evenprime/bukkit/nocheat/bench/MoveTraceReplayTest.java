@@ -0,0 +1,101 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import static cc.co.evenprime.bukkit.nocheat.bench.TestUtil.check;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.Location;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.debug.MoveTraceReader;
+
+/**
+ * Record a player that walks normally, then moves much too fast, then walks
+ * normally again, and replay the recording. The replay must come to the
+ * same verdicts as NoCheat did while recording.
+ *
+ */
+public class MoveTraceReplayTest {
+
+    private static final int WALK  = 100;
+    private static final int SPEED = 40;
+
+    public static void main(String[] args) throws Exception {
+
+        final File folder = TestUtil.createTempFolder("trace");
+        TestUtil.writeConfig(folder, "governor.active = false", "timed.check = false", "logging.consolelevel = off");
+
+        final FakeServer server = new FakeServer();
+        final FakeWorld world = new FakeWorld("world", 64);
+        server.worlds.add(world.world);
+
+        final NoCheat plugin = server.enable(folder);
+
+        for(int i = 0; i < 60; i++) {
+            server.tick();
+        }
+
+        final FakePlayer player = server.join("walker", world.world, 0.5D, 64.0D, 0.5D);
+        final File file = plugin.toggleTrace(player.player);
+
+        // One move per tick, like a client without lag
+        final List<Boolean> recorded = new ArrayList<Boolean>();
+        for(int i = 0; i < WALK; i++) {
+            recorded.add(move(server, player, 0.2D));
+        }
+        for(int i = 0; i < SPEED; i++) {
+            recorded.add(move(server, player, 1.5D));
+        }
+        for(int i = 0; i < WALK; i++) {
+            recorded.add(move(server, player, 0.2D));
+        }
+
+        plugin.toggleTrace(player.player);
+
+        // Waits until the trace file got written
+        plugin.onDisable();
+
+        check(!recorded.subList(0, WALK).contains(true), "walking doesn't cause setbacks while recording");
+        check(recorded.subList(WALK, WALK + SPEED).contains(true), "moving too fast causes setbacks while recording");
+        check(!recorded.subList(WALK + SPEED + 10, recorded.size()).contains(true), "walking again doesn't cause setbacks while recording");
+
+        final MoveTraceReader trace = new MoveTraceReader(new FileInputStream(file));
+        check(trace.playerName.equals("walker") && trace.worldName.equals("world"), "trace knows player and world");
+
+        final MoveTraceReplayer replayer = new MoveTraceReplayer(Collections.<String> emptyList());
+        final MoveTraceReplayer.Result result = replayer.replay(trace);
+        trace.close();
+        replayer.close();
+
+        check(result.moves == recorded.size(), "all moves got replayed");
+        check(result.ticks >= recorded.size() - 1, "replay took as many ticks as the recording");
+        check(result.teleports == 0, "teleports of recorded setbacks aren't replayed");
+        check(result.recordedSetbacks == Collections.frequency(recorded, true), "trace contains the setbacks of the recording");
+        check(result.verdicts.equals(recorded), "replay comes to the same verdict for every move");
+        check(result.onlyRecorded == 0 && result.onlyReplayed == 0, "no differences reported");
+        check(result.getMovesPerSecond() > 0, "throughput got measured");
+
+        TestUtil.finish("MoveTraceReplayTest");
+    }
+
+    /**
+     * Move the player along the x-axis and let a tick pass
+     *
+     * @return true if NoCheat set the player back
+     */
+    private static boolean move(FakeServer server, FakePlayer player, double distance) {
+
+        final Location to = player.getLocation();
+        to.setX(to.getX() + distance);
+
+        final boolean setBack = server.move(player, to);
+
+        server.tick();
+
+        return setBack;
+    }
+}
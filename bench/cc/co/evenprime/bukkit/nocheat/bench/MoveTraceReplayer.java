@@ -0,0 +1,280 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.player.PlayerVelocityEvent;
+import org.bukkit.util.Vector;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.debug.MoveTraceReader;
+import cc.co.evenprime.bukkit.nocheat.debug.MoveTracer;
+
+/**
+ * Replay files recorded by MoveTracer (/nocheat trace) through the move
+ * checks of this version of NoCheat, without a server. Every move goes
+ * through the same listeners as on the server, so RunFlyCheck decides
+ * which of RunningCheck, FlyingCheck, NoFallCheck and MorePacketsCheck get
+ * to see it. The blocks around each move come from the trace.
+ *
+ * For each trace it reports how fast the moves got handled and compares the
+ * setbacks of the replay with the setbacks that happened when the trace was
+ * recorded. Once both disagree, the player in the trace continues from where
+ * the server put him, so later verdicts may differ too.
+ *
+ * Usage: MoveTraceReplayer [-config config.txt] trace1.nctrace ...
+ *
+ */
+public class MoveTraceReplayer {
+
+    /**
+     * What happened during the replay of one trace
+     */
+    public static class Result {
+
+        public int                 moves;
+        public int                 velocities;
+        public int                 teleports;
+        public int                 ticks;
+
+        public int                 recordedSetbacks;
+        public int                 replayedSetbacks;
+        // Setbacks that happened only during the recording or only during
+        // the replay
+        public int                 onlyRecorded;
+        public int                 onlyReplayed;
+
+        // Time spent in NoCheat for the move events, including the
+        // teleports of setbacks
+        public long                nanoTime;
+
+        // The verdict of the replay for every move, true means setback
+        public final List<Boolean> verdicts = new ArrayList<Boolean>();
+
+        public double getMovesPerSecond() {
+            return nanoTime > 0 ? moves * 1000000000D / nanoTime : 0;
+        }
+    }
+
+    private final FakeServer             server;
+    private final NoCheat                plugin;
+    private final Map<String, FakeWorld> worlds = new HashMap<String, FakeWorld>();
+
+    /**
+     * Enable NoCheat with the default configuration, changed by
+     * "configLines" (e.g. the lines of a config.txt)
+     */
+    public MoveTraceReplayer(List<String> configLines) throws Exception {
+
+        final File folder = TestUtil.createTempFolder("replay");
+
+        final List<String> lines = new ArrayList<String>(configLines);
+
+        // Compare the move checks, not how busy the server was
+        lines.add("governor.active = false");
+        lines.add("timed.check = false");
+        lines.add("logging.consolelevel = off");
+        lines.add("logging.chatlevel = off");
+
+        TestUtil.writeConfig(folder, lines.toArray(new String[lines.size()]));
+
+        server = new FakeServer();
+        plugin = server.enable(folder);
+
+        // Checks get skipped during the first ingame seconds, until NoCheat
+        // knows how laggy the server is
+        for(int i = 0; i < 60; i++) {
+            server.tick();
+        }
+    }
+
+    private World getWorld(String name) {
+        FakeWorld world = worlds.get(name);
+        if(world == null) {
+            // Only blocks recorded in the trace exist, everything else is air
+            world = new FakeWorld(name, Integer.MIN_VALUE);
+            worlds.put(name, world);
+            server.worlds.add(world.world);
+        }
+        return world.world;
+    }
+
+    public Result replay(MoveTraceReader trace) throws IOException {
+
+        final Result result = new Result();
+        final long startTick = server.getTick();
+
+        World world = getWorld(trace.worldName);
+        FakePlayer player = null;
+
+        // A setback teleports the player, so the trace has a teleport right
+        // after each recorded setback. The replay does its own setbacks.
+        int setBackTick = -1;
+
+        while(trace.next()) {
+
+            // Let the server catch up with the time of the event
+            while(server.getTick() - startTick < trace.tick) {
+                server.tick();
+            }
+
+            if(player == null) {
+                player = server.join(trace.playerName, world, trace.x, trace.y, trace.z);
+            }
+
+            switch (trace.kind) {
+            case MoveTracer.MOVE:
+                move(trace, player, world, result);
+                setBackTick = trace.hasFlag(MoveTracer.SETBACK) ? trace.tick : -1;
+                break;
+            case MoveTracer.VELOCITY:
+                result.velocities++;
+                server.fire(Event.Type.PLAYER_VELOCITY, new PlayerVelocityEvent(player.player, new Vector(trace.x, trace.y, trace.z)));
+                break;
+            case MoveTracer.TELEPORT:
+                if(trace.tick == setBackTick) {
+                    setBackTick = -1;
+                    break;
+                }
+                result.teleports++;
+                world = getWorld(trace.teleportWorld);
+                final Location to = new Location(world, trace.x, trace.y, trace.z);
+                server.fire(Event.Type.PLAYER_TELEPORT, new PlayerTeleportEvent(player.player, player.getLocation(), to));
+                player.setLocation(to);
+                break;
+            }
+        }
+
+        result.ticks = (int) (server.getTick() - startTick);
+
+        if(player != null) {
+            server.quit(player);
+        }
+
+        return result;
+    }
+
+    private void move(MoveTraceReader trace, FakePlayer player, World world, Result result) {
+
+        // The blocks around the target, as they were when the move happened
+        final FakeWorld blocks = worlds.get(world.getName());
+        final int bx = (int) Math.floor(trace.x);
+        final int by = (int) Math.floor(trace.y);
+        final int bz = (int) Math.floor(trace.z);
+        for(int dx = -1; dx <= 1; dx++) {
+            for(int dy = -1; dy <= 2; dy++) {
+                for(int dz = -1; dz <= 1; dz++) {
+                    blocks.setBlockTypeId(bx + dx, by + dy, bz + dz, trace.getBlockTypeId(dx, dy, dz));
+                }
+            }
+        }
+
+        player.world = world;
+        player.x = trace.fromX;
+        player.y = trace.fromY;
+        player.z = trace.fromZ;
+        player.sneaking = trace.hasFlag(MoveTracer.SNEAKING);
+        player.sprinting = trace.hasFlag(MoveTracer.SPRINTING);
+        player.insideVehicle = trace.hasFlag(MoveTracer.VEHICLE);
+
+        // Bukkit can only tell if real players sprint, so use what the trace
+        // says. The snapshot stays valid until the move got handled.
+        plugin.getPlayer(player.player).getSnapshot().sprinting = player.sprinting;
+
+        final Location to = new Location(world, trace.x, trace.y, trace.z, player.yaw, player.pitch);
+
+        final long start = System.nanoTime();
+        final boolean replayed = server.move(player, to);
+        result.nanoTime += System.nanoTime() - start;
+
+        final boolean recorded = trace.hasFlag(MoveTracer.SETBACK);
+
+        result.moves++;
+        result.verdicts.add(replayed);
+
+        if(recorded)
+            result.recordedSetbacks++;
+        if(replayed)
+            result.replayedSetbacks++;
+        if(recorded && !replayed)
+            result.onlyRecorded++;
+        if(replayed && !recorded)
+            result.onlyReplayed++;
+    }
+
+    public void close() {
+        plugin.onDisable();
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        final List<String> config = new ArrayList<String>();
+        final List<File> files = new ArrayList<File>();
+
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("-config") && i + 1 < args.length) {
+                final BufferedReader r = new BufferedReader(new FileReader(args[++i]));
+                String line;
+                while((line = r.readLine()) != null) {
+                    config.add(line);
+                }
+                r.close();
+            } else {
+                files.add(new File(args[i]));
+            }
+        }
+
+        if(files.isEmpty()) {
+            System.out.println("Usage: MoveTraceReplayer [-config config.txt] trace1.nctrace ...");
+            System.exit(2);
+        }
+
+        final MoveTraceReplayer replayer = new MoveTraceReplayer(config);
+        final Result total = new Result();
+
+        for(File file : files) {
+            final MoveTraceReader trace = new MoveTraceReader(new FileInputStream(file));
+            final Result r;
+            try {
+                r = replayer.replay(trace);
+            } finally {
+                trace.close();
+            }
+
+            print(file.getName() + " (" + trace.playerName + ")", r);
+
+            total.moves += r.moves;
+            total.velocities += r.velocities;
+            total.teleports += r.teleports;
+            total.ticks += r.ticks;
+            total.recordedSetbacks += r.recordedSetbacks;
+            total.replayedSetbacks += r.replayedSetbacks;
+            total.onlyRecorded += r.onlyRecorded;
+            total.onlyReplayed += r.onlyReplayed;
+            total.nanoTime += r.nanoTime;
+        }
+
+        if(files.size() > 1) {
+            print("Total", total);
+        }
+
+        replayer.close();
+    }
+
+    private static void print(String name, Result r) {
+        System.out.println(name + ": " + r.moves + " moves, " + r.velocities + " velocity changes, " + r.teleports + " teleports in " + r.ticks + " ticks");
+        System.out.println("  setbacks recorded: " + r.recordedSetbacks + ", replayed: " + r.replayedSetbacks + ", only recorded: " + r.onlyRecorded + ", only replayed (new false positives?): " + r.onlyReplayed);
+        System.out.println("  time in NoCheat: " + r.nanoTime / 1000000L + " ms, " + (long) r.getMovesPerSecond() + " moves per second");
+    }
+}
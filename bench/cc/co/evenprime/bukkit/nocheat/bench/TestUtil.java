@@ -0,0 +1,64 @@
+package cc.co.evenprime.bukkit.nocheat.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Small helpers shared by the tests and benchmarks in this folder
+ *
+ */
+public class TestUtil {
+
+    private static int failures;
+
+    /**
+     * Create an empty folder for the configuration files of a NoCheat that
+     * gets enabled by a FakeServer
+     */
+    public static File createTempFolder(String name) throws IOException {
+        final File folder = File.createTempFile("nocheat-" + name, "");
+        folder.delete();
+        folder.mkdirs();
+        folder.deleteOnExit();
+        return folder;
+    }
+
+    /**
+     * Write a config.txt that changes some options of the default
+     * configuration, e.g. "governor.budget = 1"
+     */
+    public static void writeConfig(File folder, String... lines) throws IOException {
+        final Writer w = new OutputStreamWriter(new FileOutputStream(new File(folder, "config.txt")), "UTF-8");
+        for(String line : lines) {
+            w.write(line);
+            w.write("\r\n");
+        }
+        w.close();
+    }
+
+    public static void check(boolean condition, String description) {
+        if(condition) {
+            System.out.println("ok     " + description);
+        } else {
+            System.out.println("FAILED " + description);
+            failures++;
+        }
+    }
+
+    /**
+     * Report the result and end the program with an exit code that tells if
+     * all checks passed
+     */
+    public static void finish(String name) {
+        if(failures == 0) {
+            System.out.println(name + ": all checks passed");
+            System.exit(0);
+        } else {
+            System.out.println(name + ": " + failures + " check(s) failed");
+            System.exit(1);
+        }
+    }
+}
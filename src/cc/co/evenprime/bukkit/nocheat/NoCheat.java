@@ -1,7 +1,10 @@
 package cc.co.evenprime.bukkit.nocheat;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.bukkit.World;
 import org.bukkit.command.Command;
@@ -15,24 +18,28 @@ import cc.co.evenprime.bukkit.nocheat.command.CommandHandler;
 import cc.co.evenprime.bukkit.nocheat.config.ConfigurationManager;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.config.util.ActionList;
-import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.DataManager;
 import cc.co.evenprime.bukkit.nocheat.data.ExecutionHistory;
 import cc.co.evenprime.bukkit.nocheat.debug.ActiveCheckPrinter;
 import cc.co.evenprime.bukkit.nocheat.debug.LagMeasureTask;
+import cc.co.evenprime.bukkit.nocheat.debug.MoveTracer;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
+import cc.co.evenprime.bukkit.nocheat.debug.TickGovernor;
 
 import cc.co.evenprime.bukkit.nocheat.events.BlockPlaceEventManager;
 import cc.co.evenprime.bukkit.nocheat.events.BlockBreakEventManager;
+import cc.co.evenprime.bukkit.nocheat.events.BlockChangeEventManager;
 import cc.co.evenprime.bukkit.nocheat.events.EntityDamageEventManager;
 import cc.co.evenprime.bukkit.nocheat.events.EventManager;
 import cc.co.evenprime.bukkit.nocheat.events.PlayerChatEventManager;
+import cc.co.evenprime.bukkit.nocheat.events.PlayerJoinQuitEventManager;
 import cc.co.evenprime.bukkit.nocheat.events.PlayerMoveEventManager;
 import cc.co.evenprime.bukkit.nocheat.events.PlayerTeleportEventManager;
 import cc.co.evenprime.bukkit.nocheat.events.SwingEventManager;
 import cc.co.evenprime.bukkit.nocheat.events.TimedEventManager;
+import cc.co.evenprime.bukkit.nocheat.log.LogFileWriter;
 import cc.co.evenprime.bukkit.nocheat.log.LogLevel;
 import cc.co.evenprime.bukkit.nocheat.log.LogManager;
 
@@ -45,17 +52,27 @@ import cc.co.evenprime.bukkit.nocheat.log.LogManager;
  */
 public class NoCheat extends JavaPlugin {
 
-    private ConfigurationManager conf;
-    private LogManager           log;
-    private DataManager          data;
-    private PerformanceManager   performance;
-    private ActionManager        action;
+    // Replaced as a whole when the config gets reloaded
+    private volatile ConfigurationManager conf;
+    private LogManager                    log;
+    private DataManager                   data;
+    private PerformanceManager            performance;
+    private ActionManager                 action;
 
-    private List<EventManager>   eventManagers;
+    private List<EventManager>            eventManagers;
+    private TimedEventManager             timedEventManager;
 
-    private LagMeasureTask       lagMeasureTask;
+    private LagMeasureTask                lagMeasureTask;
+    private TickGovernor                  governor;
 
-    private int                  taskId = -1;
+    // Some events may be handled by other threads
+    private volatile Thread               mainThread;
+    private MoveTracer                    tracer;
+
+    private int                           taskId    = -1;
+
+    // Only one reload at a time
+    private final AtomicBoolean           reloading = new AtomicBoolean(false);
 
     public NoCheat() {
 
@@ -75,6 +92,16 @@ public class NoCheat extends JavaPlugin {
             lagMeasureTask = null;
         }
 
+        if(governor != null) {
+            governor.cancel();
+            governor = null;
+        }
+
+        if(tracer != null) {
+            tracer.stopAll();
+            tracer = null;
+        }
+
         if(conf != null) {
             conf.cleanup();
             conf = null;
@@ -88,6 +115,10 @@ public class NoCheat extends JavaPlugin {
 
     public void onEnable() {
 
+        // Plugins get enabled by the main thread
+        this.mainThread = Thread.currentThread();
+        LogFileWriter.setMainThread(mainThread);
+
         // First set up logging
         this.log = new LogManager();
 
@@ -98,24 +129,33 @@ public class NoCheat extends JavaPlugin {
 
         // Then read the configuration files
         this.conf = new ConfigurationManager(this.getDataFolder().getPath());
+        conf.startLogging();
+
+        // Then set up the performance counters, which tell the governor how
+        // much time NoCheat needs
+        this.governor = new TickGovernor(this);
+        this.performance = new PerformanceManager(governor);
+        governor.start(performance, conf.getConfigurationCacheForWorld(null).governor);
 
-        // Then set up the performance counters
-        this.performance = new PerformanceManager();
+        // Then set up recording of player movements, if somebody asks for it
+        this.tracer = new MoveTracer(new File(this.getDataFolder(), "traces"));
 
         // Then set up the Action Manager
         this.action = new ActionManager(this);
 
-        eventManagers = new ArrayList<EventManager>(8); // Big enough
+        eventManagers = new ArrayList<EventManager>(12); // Big enough
         // Then set up the event listeners
         eventManagers.add(new PlayerMoveEventManager(this));
         eventManagers.add(new PlayerTeleportEventManager(this));
+        eventManagers.add(new PlayerJoinQuitEventManager(this));
         eventManagers.add(new PlayerChatEventManager(this));
         eventManagers.add(new BlockBreakEventManager(this));
         eventManagers.add(new BlockPlaceEventManager(this));
+        eventManagers.add(new BlockChangeEventManager(this));
         eventManagers.add(new EntityDamageEventManager(this));
         eventManagers.add(new SwingEventManager(this));
-        TimedEventManager m = new TimedEventManager(this);
-        eventManagers.add(m);
+        timedEventManager = new TimedEventManager(this);
+        eventManagers.add(timedEventManager);
 
         // Then set up a task to monitor server lag
         if(lagMeasureTask == null) {
@@ -130,6 +170,22 @@ public class NoCheat extends JavaPlugin {
         log.logToConsole(LogLevel.LOW, "[NoCheat] version [" + this.getDescription().getVersion() + "] is enabled.");
     }
 
+    /**
+     * Get the configuration of the world the player is in. Remembered by the
+     * player, so usually no lookup is needed at all.
+     */
+    public ConfigurationCache getConfig(NoCheatPlayer player) {
+        return player.getConfig(conf);
+    }
+
+    /**
+     * The configuration the player got the last time, for other threads than
+     * the main thread, see NoCheatPlayer.getLastConfig
+     */
+    public ConfigurationCache getLastConfig(NoCheatPlayer player) {
+        return player.getLastConfig(conf);
+    }
+
     public ConfigurationCache getConfig(Player player) {
         return getConfig(player.getWorld());
     }
@@ -142,27 +198,73 @@ public class NoCheat extends JavaPlugin {
         log.log(level, message, cc);
     }
 
-    public BaseData getData(String playerName) {
-        return data.getData(playerName);
+    public boolean isLogged(LogLevel level, ConfigurationCache cc) {
+        return log.isLogged(level, cc);
     }
 
-    public void clearCriticalData(String playerName) {
-        data.clearCriticalData(playerName);
+    public NoCheatPlayer getPlayer(Player player) {
+        return data.getPlayer(player);
     }
 
-    public void playerJoined(String playerName) {
-        clearCriticalData(playerName);
+    /**
+     * Like "getPlayer", but for other threads than the main thread, see
+     * DataManager.getPlayerFromAnyThread
+     */
+    public NoCheatPlayer getPlayerFromAnyThread(Player player) {
+        return data.getPlayerFromAnyThread(player);
+    }
+
+    public void playerJoined(Player player) {
+        data.playerJoined(player);
+
+        if(timedEventManager != null) {
+            timedEventManager.playerJoined(player);
+        }
+    }
+
+    public void playerQuit(Player player) {
+        data.playerQuit(player);
+        tracer.stop(player);
+
+        if(timedEventManager != null) {
+            timedEventManager.playerQuit(player);
+        }
     }
 
     public Performance getPerformance(Type type) {
         return performance.get(type);
     }
 
+    /**
+     * Time spent by NoCheat per server tick
+     */
+    public Performance getTickPerformance() {
+        return performance.getTicks();
+    }
+
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         return CommandHandler.handleCommand(this, sender, command, label, args);
     }
 
+    public MoveTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Start or stop recording the movements of a player
+     * 
+     * @return the file the movements get written to, or null if recording
+     *         stopped
+     */
+    public File toggleTrace(Player player) throws IOException {
+        return tracer.toggle(player);
+    }
+
+    public TickGovernor getGovernor() {
+        return governor;
+    }
+
     public int getIngameSeconds() {
         if(lagMeasureTask != null)
             return lagMeasureTask.getIngameSeconds();
@@ -181,13 +283,28 @@ public class NoCheat extends JavaPlugin {
         return 1000L;
     }
 
-    public boolean execute(Player player, ActionList actions, int violationLevel, ExecutionHistory history, ConfigurationCache cc) {
+    public boolean execute(NoCheatPlayer player, ActionList actions, int violationLevel, ExecutionHistory history, ConfigurationCache cc) {
         if(action != null) {
             return action.executeActions(player, actions, violationLevel, history, cc);
         }
         return false;
     }
 
+    /**
+     * Like "execute", but can be called by any thread. Only the decision to
+     * cancel is made now, the other actions are run by the main thread later.
+     */
+    public boolean executeLater(NoCheatPlayer player, ActionList actions, int violationLevel, ExecutionHistory history, ConfigurationCache cc, String check, String text) {
+        if(action != null) {
+            return action.executeActionsLater(player, actions, violationLevel, history, cc, check, text);
+        }
+        return false;
+    }
+
+    public boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+
     public void logToConsole(LogLevel low, String message) {
         if(log != null) {
             log.logToConsole(low, message);
@@ -195,20 +312,117 @@ public class NoCheat extends JavaPlugin {
 
     }
 
-    public void reloadConfig() {
-        conf.cleanup();
-        this.conf = new ConfigurationManager(this.getDataFolder().getPath());
-        data.cleanDataMap();
-        data.clearCriticalData();
+    /**
+     * Read the configuration files again in a background thread and switch
+     * to the new configuration on the main thread once it's ready. The old
+     * configuration stays in use until then.
+     * 
+     * @param sender
+     *            who gets told when the reload is done
+     */
+    public void reloadConfig(final CommandSender sender) {
+
+        if(!reloading.compareAndSet(false, true)) {
+            sender.sendMessage("[NoCheat] The configuration is already being reloaded");
+            return;
+        }
+
+        final String folder = this.getDataFolder().getPath();
+
+        getServer().getScheduler().scheduleAsyncDelayedTask(this, new Runnable() {
+
+            public void run() {
+
+                ConfigurationManager newConf = null;
+
+                try {
+                    newConf = new ConfigurationManager(folder);
+                } catch(Exception e) {
+                    e.printStackTrace();
+                }
+
+                final ConfigurationManager result = newConf;
+
+                getServer().getScheduler().scheduleSyncDelayedTask(NoCheat.this, new Runnable() {
+
+                    public void run() {
+
+                        if(result == null) {
+                            reloading.set(false);
+                            sender.sendMessage("[NoCheat] Reloading the configuration failed, the old configuration is still used");
+                            return;
+                        }
+
+                        switchConfig(result);
+                        sender.sendMessage("[NoCheat] Configuration reloaded");
+                    }
+                });
+            }
+        });
     }
 
     /**
-     * Call this periodically to walk over the stored data map and remove
-     * old/unused entries
+     * Start using the new configuration. Player data is kept, only data of
+     * checks whose options changed gets reset.
+     */
+    private void switchConfig(final ConfigurationManager newConf) {
+
+        final ConfigurationManager oldConf = this.conf;
+
+        this.conf = newConf;
+
+        data.configurationChanged(oldConf, newConf);
+        data.expirePermissions();
+
+        if(governor != null) {
+            governor.configure(newConf.getConfigurationCacheForWorld(null).governor);
+        }
+
+        // Write the remaining messages to the old log files and close them
+        // before the new writers open the same files. Closing may take a
+        // moment, so don't let the main thread wait for it. New messages
+        // wait in the queues until then. The next reload may only start
+        // after the files were switched.
+        getServer().getScheduler().scheduleAsyncDelayedTask(this, new Runnable() {
+
+            public void run() {
+                try {
+                    oldConf.cleanup();
+                    newConf.startLogging();
+                } finally {
+                    reloading.set(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Call this periodically on the main thread to ask players for their
+     * permissions again from time to time
+     * 
+     */
+    public void refreshPermissions(long time) {
+        data.refreshPermissions(time, conf.getConfigurationCacheForWorld(null).permissions.refreshInterval);
+    }
+
+    /**
+     * Call this periodically to walk over a part of the stored data map and
+     * remove old/unused entries
      * 
      */
     public void cleanDataMap() {
         data.cleanDataMap();
 
     }
+
+    /**
+     * Call this periodically to let the performance counters know how much
+     * time has passed
+     * 
+     */
+    public void updatePerformance(long time) {
+        if(performance != null) {
+            performance.update(time);
+        }
+    }
 }
@@ -0,0 +1,164 @@
+package cc.co.evenprime.bukkit.nocheat;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
+import cc.co.evenprime.bukkit.nocheat.config.ConfigurationManager;
+import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
+import cc.co.evenprime.bukkit.nocheat.data.BaseData;
+import cc.co.evenprime.bukkit.nocheat.data.PlayerSnapshot;
+
+/**
+ * A handle for an online player, created once when he joins the server. It
+ * keeps the bukkit player and the NoCheat data of that player together, so
+ * checks and actions can pass it along instead of looking up the data by name
+ * again and again.
+ *
+ */
+public final class NoCheatPlayer {
+
+    /**
+     * The configuration of a world, and where it came from
+     */
+    private static final class WorldConfig {
+
+        private final World                world;
+        private final String               worldName;
+        private final ConfigurationManager manager;
+        private final ConfigurationCache   cache;
+
+        private WorldConfig(World world, ConfigurationManager manager) {
+            this.world = world;
+            this.worldName = world.getName();
+            this.manager = manager;
+            this.cache = manager.getConfigurationCacheForWorld(worldName);
+        }
+    }
+
+    private final Player     player;
+    private final BaseData   data;
+
+    // The player's permissions for all CheckPermissions, one bit each. They
+    // get asked for again once they are marked as outdated. Other threads
+    // keep using the old ones until that happened.
+    private volatile long    permissions;
+    private volatile boolean permissionsOutdated = true;
+    private volatile long    permissionsTime;
+
+    // The configuration of the world the player was in the last time
+    private volatile WorldConfig worldConfig;
+
+    public NoCheatPlayer(Player player, BaseData data) {
+        this.player = player;
+        this.data = data;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public BaseData getData() {
+        return data;
+    }
+
+    /**
+     * Get the state of the player, read at most once per tick
+     */
+    public PlayerSnapshot getSnapshot() {
+        return data.snapshot.update(player);
+    }
+
+    public String getName() {
+        return data.log.playerName;
+    }
+
+    /**
+     * Get the configuration of the world the player is in now. Only looked up
+     * again if the player changed the world or the configuration got
+     * reloaded since the last time.
+     */
+    public ConfigurationCache getConfig(ConfigurationManager manager) {
+
+        final World world = player.getWorld();
+
+        WorldConfig config = worldConfig;
+
+        if(config == null || config.world != world || config.manager != manager) {
+            config = new WorldConfig(world, manager);
+            worldConfig = config;
+        }
+
+        return config.cache;
+    }
+
+    /**
+     * Like "getConfig", but without asking bukkit which world the player is
+     * in now, so other threads than the main thread may use it. It's the
+     * configuration of the world the player was in when "getConfig" got
+     * called the last time, or the global one if it never was.
+     */
+    public ConfigurationCache getLastConfig(ConfigurationManager manager) {
+
+        final WorldConfig config = worldConfig;
+
+        if(config == null)
+            return manager.getConfigurationCacheForWorld(null);
+
+        if(config.manager != manager)
+            return manager.getConfigurationCacheForWorld(config.worldName);
+
+        return config.cache;
+    }
+
+    public boolean hasPermission(CheckPermission permission) {
+
+        if(permissionsOutdated) {
+            refreshPermissions();
+        }
+
+        return (permissions & permission.bit) != 0;
+    }
+
+    /**
+     * Like "hasPermission", but never asks bukkit, so other threads than the
+     * main thread may use it. Uses the permissions that were asked for the
+     * last time, even if they are outdated. If they never were, the player
+     * has none.
+     */
+    public boolean hasCachedPermission(CheckPermission permission) {
+        return (permissions & permission.bit) != 0;
+    }
+
+    /**
+     * Ask bukkit for all permissions now. Only the main thread may do this.
+     */
+    public void refreshPermissions() {
+
+        long bits = 0;
+
+        for(CheckPermission permission : CheckPermission.getAll()) {
+            if(player.hasPermission(permission.node)) {
+                bits |= permission.bit;
+            }
+        }
+
+        permissions = bits;
+        permissionsTime = System.currentTimeMillis();
+        permissionsOutdated = false;
+    }
+
+    /**
+     * Ask for the permissions again the next time one of them is needed
+     */
+    public void expirePermissions() {
+        permissionsOutdated = true;
+    }
+
+    /**
+     * When the permissions were asked for the last time
+     */
+    public long getPermissionsTime() {
+        return permissionsTime;
+    }
+}
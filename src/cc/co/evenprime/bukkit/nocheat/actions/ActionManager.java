@@ -1,8 +1,10 @@
 package cc.co.evenprime.bukkit.nocheat.actions;
 
-import org.bukkit.entity.Player;
+import java.util.ArrayList;
+import java.util.List;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.actions.types.Action;
 import cc.co.evenprime.bukkit.nocheat.actions.types.ConsolecommandAction;
 import cc.co.evenprime.bukkit.nocheat.actions.types.LogAction;
@@ -11,7 +13,8 @@ import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.config.util.ActionList;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.ExecutionHistory;
-import cc.co.evenprime.bukkit.nocheat.data.LogData;
+import cc.co.evenprime.bukkit.nocheat.debug.Performance;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
 /**
  * Will trace the history of action executions to decide if an action 'really'
@@ -20,17 +23,27 @@ import cc.co.evenprime.bukkit.nocheat.data.LogData;
  */
 public class ActionManager {
 
-    private final NoCheat plugin;
+    private final NoCheat     plugin;
+
+    private final Performance actionsPerformance;
+    private final Performance logPerformance;
+    private final Performance consolecommandPerformance;
 
     public ActionManager(NoCheat plugin) {
         this.plugin = plugin;
+
+        this.actionsPerformance = plugin.getPerformance(Type.ACTIONS);
+        this.logPerformance = plugin.getPerformance(Type.ACTIONS_LOG);
+        this.consolecommandPerformance = plugin.getPerformance(Type.ACTIONS_CONSOLECOMMAND);
     }
 
-    public boolean executeActions(final Player player, final ActionList actions, final int violationLevel, final ExecutionHistory history, final ConfigurationCache cc) {
+    public boolean executeActions(final NoCheatPlayer player, final ActionList actions, final int violationLevel, final ExecutionHistory history, final ConfigurationCache cc) {
+
+        final long start = actionsPerformance.start();
 
         boolean special = false;
 
-        final BaseData data = plugin.getData(player.getName());
+        final BaseData data = player.getData();
         // Always set this here "by hand"
         data.log.violationLevel = violationLevel;
 
@@ -40,24 +53,91 @@ public class ActionManager {
 
             if(history.executeAction(ac, time)) {
                 if(ac instanceof LogAction) {
-                    executeLogAction((LogAction) ac, data.log, cc);
+                    final long logStart = logPerformance.start();
+                    executeLogAction((LogAction) ac, player, cc);
+                    logPerformance.stop(logStart);
                 } else if(ac instanceof SpecialAction) {
                     special = true;
                 } else if(ac instanceof ConsolecommandAction) {
-                    executeConsoleCommand((ConsolecommandAction) ac, data.log);
+                    final long commandStart = consolecommandPerformance.start();
+                    executeConsoleCommand((ConsolecommandAction) ac, player);
+                    consolecommandPerformance.stop(commandStart);
+                }
+            }
+        }
+
+        actionsPerformance.stop(start);
+
+        return special;
+    }
+
+    /**
+     * Like "executeActions", but for threads other than the main thread.
+     * Only the decision to cancel is made now, all other actions get executed
+     * on the main thread later, after "check" and "text" got stored in the
+     * log data of the player.
+     */
+    public boolean executeActionsLater(final NoCheatPlayer player, final ActionList actions, final int violationLevel, final ExecutionHistory history, final ConfigurationCache cc, final String check, final String text) {
+
+        boolean special = false;
+
+        final List<Action> later = new ArrayList<Action>(2);
+
+        final long time = System.currentTimeMillis() / 1000;
+
+        for(Action ac : actions.getActions(violationLevel)) {
+
+            if(history.executeAction(ac, time)) {
+                if(ac instanceof SpecialAction) {
+                    special = true;
+                } else {
+                    later.add(ac);
                 }
             }
         }
 
+        if(!later.isEmpty()) {
+            plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, new Runnable() {
+
+                public void run() {
+
+                    final long start = actionsPerformance.start();
+
+                    final BaseData data = player.getData();
+                    data.log.violationLevel = violationLevel;
+                    data.log.check = check;
+                    data.log.text = text;
+
+                    for(Action ac : later) {
+                        if(ac instanceof LogAction) {
+                            final long logStart = logPerformance.start();
+                            executeLogAction((LogAction) ac, player, cc);
+                            logPerformance.stop(logStart);
+                        } else if(ac instanceof ConsolecommandAction) {
+                            final long commandStart = consolecommandPerformance.start();
+                            executeConsoleCommand((ConsolecommandAction) ac, player);
+                            consolecommandPerformance.stop(commandStart);
+                        }
+                    }
+
+                    actionsPerformance.stop(start);
+                }
+            });
+        }
+
         return special;
     }
 
-    private void executeLogAction(LogAction l, LogData data, ConfigurationCache cc) {
-        plugin.log(l.level, cc.logging.prefix + l.getLogMessage(data), cc);
+    private void executeLogAction(LogAction l, NoCheatPlayer player, ConfigurationCache cc) {
+        // Only create the message if it will be visible somewhere
+        if(!plugin.isLogged(l.level, cc))
+            return;
+
+        plugin.log(l.level, l.getLogMessage(cc.logging.prefix, player), cc);
     }
 
-    private void executeConsoleCommand(ConsolecommandAction action, LogData data) {
-        String command = action.getCommand(data);
+    private void executeConsoleCommand(ConsolecommandAction action, NoCheatPlayer player) {
+        String command = action.getCommand(player);
         try {
             plugin.getServer().broadcastMessage(command);
         } catch(Exception e) {
@@ -24,9 +24,22 @@ public abstract class Action {
      */
     public final String name;
 
+    /**
+     * A small number that identifies the action, given by the ActionMapper
+     */
+    private int         id = 0;
+
     public Action(String name, int delay, int repeat) {
         this.name = name;
         this.delay = delay;
         this.repeat = repeat;
     }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
 }
@@ -1,21 +1,172 @@
 package cc.co.evenprime.bukkit.nocheat.actions.types;
 
 import java.util.ArrayList;
-import java.util.Locale;
 
-import org.bukkit.Bukkit;
+import net.minecraft.server.EntityPlayer;
+
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
 import org.bukkit.entity.Player;
 
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.data.LogData;
 import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
 import cc.co.evenprime.bukkit.nocheat.data.SimpleLocation;
 
 public abstract class ActionWithParameters extends Action {
 
-    private enum WildCard {
-        PLAYER("player"), LOCATION("location"), WORLD("world"), VIOLATIONS("violations"), MOVEDISTANCE("movedistance"), REACHDISTANCE("reachdistance"), FALLDISTANCE("falldistance"), LOCATION_TO("locationto"), CHECK("check"), PACKETS("packets"), TEXT("text"), PLACE_LOCATION("placelocation"), PLACE_AGAINST("placeagainst"), BLOCK_TYPE("blocktype");
+    /**
+     * One piece of a message, that knows how to write itself
+     */
+    private interface MessagePart {
+
+        public void append(StringBuilder log, Player player, LogData data);
+    }
+
+    /**
+     * A piece of the message that is always the same
+     */
+    private static final class TextPart implements MessagePart {
+
+        private final String text;
+
+        private TextPart(String text) {
+            this.text = text;
+        }
+
+        public void append(StringBuilder log, Player player, LogData data) {
+            log.append(text);
+        }
+    }
+
+    private enum WildCard implements MessagePart {
+
+        PLAYER("player") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                log.append(data.playerName);
+            }
+        },
+        LOCATION("location") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                if(player instanceof CraftPlayer) {
+                    final EntityPlayer p = ((CraftPlayer) player).getHandle();
+                    appendCoordinates(log, p.locX, p.locY, p.locZ);
+                } else if(player != null) {
+                    // Not a real player, e.g. a NPC of another plugin
+                    final Location l = player.getLocation();
+                    appendCoordinates(log, l.getX(), l.getY(), l.getZ());
+                } else {
+                    log.append("unknown");
+                }
+            }
+        },
+        WORLD("world") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                if(player != null) {
+                    log.append(player.getWorld().getName());
+                } else {
+                    log.append("unknown");
+                }
+            }
+        },
+        VIOLATIONS("violations") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                log.append(data.violationLevel);
+            }
+        },
+        MOVEDISTANCE("movedistance") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                if(player instanceof CraftPlayer) {
+                    final EntityPlayer p = ((CraftPlayer) player).getHandle();
+                    final PreciseLocation t = data.toLocation;
+                    if(t.isSet()) {
+                        appendCoordinates(log, t.x - p.locX, t.y - p.locY, t.z - p.locZ);
+                    } else {
+                        log.append("null");
+                    }
+                } else if(player != null) {
+                    final Location l = player.getLocation();
+                    final PreciseLocation t = data.toLocation;
+                    if(t.isSet()) {
+                        appendCoordinates(log, t.x - l.getX(), t.y - l.getY(), t.z - l.getZ());
+                    } else {
+                        log.append("null");
+                    }
+                } else {
+                    log.append("unknown");
+                }
+            }
+        },
+        REACHDISTANCE("reachdistance") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                appendDouble(log, data.reachdistance);
+            }
+        },
+        FALLDISTANCE("falldistance") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                appendDouble(log, data.falldistance);
+            }
+        },
+        LOCATION_TO("locationto") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                final PreciseLocation to = data.toLocation;
+                if(to.isSet()) {
+                    appendCoordinates(log, to.x, to.y, to.z);
+                } else {
+                    log.append("unknown");
+                }
+            }
+        },
+        CHECK("check") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                log.append(data.check);
+            }
+        },
+        PACKETS("packets") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                log.append(data.packets);
+            }
+        },
+        TEXT("text") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                log.append(data.text);
+            }
+        },
+        PLACE_LOCATION("placelocation") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                appendBlockLocation(log, data.placedLocation);
+            }
+        },
+        PLACE_AGAINST("placeagainst") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                appendBlockLocation(log, data.placedAgainstLocation);
+            }
+        },
+        BLOCK_TYPE("blocktype") {
+
+            public void append(StringBuilder log, Player player, LogData data) {
+                final Material type = data.placedType;
+                if(type == null) {
+                    log.append("null");
+                } else {
+                    log.append(type.toString());
+                }
+            }
+        };
 
         private final String s;
 
@@ -34,22 +185,43 @@ public abstract class ActionWithParameters extends Action {
         }
     }
 
-    private final ArrayList<Object> messageParts;
+    // Messages get created on the main thread most of the time, but to be
+    // safe every thread gets its own builder
+    private static final ThreadLocal<StringBuilder> builders = new ThreadLocal<StringBuilder>() {
+
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    private final MessagePart[]                     messageParts;
 
     public ActionWithParameters(String name, int delay, int repeat, String message) {
         super(name, delay, repeat);
 
-        messageParts = new ArrayList<Object>();
+        ArrayList<MessagePart> parts = new ArrayList<MessagePart>();
+        StringBuilder text = new StringBuilder();
+
+        parseMessage(message, parts, text);
 
-        parseMessage(message);
+        if(text.length() > 0) {
+            parts.add(new TextPart(text.toString()));
+        }
+
+        messageParts = parts.toArray(new MessagePart[parts.size()]);
     }
 
-    private void parseMessage(String message) {
+    /**
+     * Split the message into text and wildcards. Text gets collected in
+     * "text" until the next wildcard is found.
+     */
+    private static void parseMessage(String message, ArrayList<MessagePart> messageParts, StringBuilder text) {
         String parts[] = message.split("\\[", 2);
 
         // No opening braces left
         if(parts.length != 2) {
-            messageParts.add(message);
+            text.append(message);
         }
         // Found an opening brace
         else {
@@ -57,7 +229,7 @@ public abstract class ActionWithParameters extends Action {
 
             // Found no matching closing brace
             if(parts2.length != 2) {
-                messageParts.add(message);
+                text.append(message);
             }
             // Found a matching closing brace
             else {
@@ -65,13 +237,17 @@ public abstract class ActionWithParameters extends Action {
 
                 if(w != null) {
                     // Found an existing wildcard inbetween the braces
-                    messageParts.add(parts[0]);
+                    text.append(parts[0]);
+                    if(text.length() > 0) {
+                        messageParts.add(new TextPart(text.toString()));
+                        text.setLength(0);
+                    }
                     messageParts.add(w);
 
                     // Go further down recursive
-                    parseMessage(parts2[1]);
+                    parseMessage(parts2[1], messageParts, text);
                 } else {
-                    messageParts.add(message);
+                    text.append(message);
                 }
             }
         }
@@ -79,117 +255,77 @@ public abstract class ActionWithParameters extends Action {
 
     /**
      * Get a string with all the wildcards replaced with data from LogData
-     * 
-     * @param data
+     *
+     * @param player
      * @return
      */
-    protected String getMessage(final LogData data) {
-        StringBuilder log = new StringBuilder(100); // Should be big enough most
-                                                    // of the time
-
-        for(Object part : messageParts) {
-            if(part instanceof String) {
-                log.append((String) part);
-            } else {
-                log.append(getParameter((WildCard) part, data));
-            }
-        }
-
-        return log.toString();
+    protected String getMessage(final NoCheatPlayer player) {
+        return getMessage("", player);
     }
 
-    private String getParameter(WildCard wildcard, LogData data) {
-        // The == is correct here, as these really are identical objects, not
-        // only equal
-        switch (wildcard) {
-
-        case PLAYER:
-            return data.playerName;
-
-        case CHECK:
-            return data.check;
+    /**
+     * Get a string that starts with "prefix", followed by the message with
+     * all the wildcards replaced with data from LogData
+     *
+     * @param prefix
+     * @param player
+     * @return
+     */
+    protected String getMessage(final String prefix, final NoCheatPlayer player) {
+        final LogData data = player.getData().log;
+        final Player bukkitPlayer = player.getPlayer();
+        final StringBuilder log = builders.get();
 
-        case LOCATION: {
-            Player player = Bukkit.getPlayer(data.playerName);
-            if(player != null) {
-                Location l = player.getLocation();
-                return String.format(Locale.US, "%.2f,%.2f,%.2f", l.getX(), l.getY(), l.getZ());
-            }
-            return "unknown";
-        }
+        log.setLength(0);
+        log.append(prefix);
 
-        case WORLD: {
-            Player player = Bukkit.getPlayer(data.playerName);
-            if(player != null) {
-                return player.getWorld().getName();
-            }
-            return "unknown";
-        }
-        case VIOLATIONS:
-            return String.format(Locale.US, "%d", data.violationLevel);
-
-        case MOVEDISTANCE: {
-            Player player = Bukkit.getPlayer(data.playerName);
-            if(player != null) {
-                Location l = player.getLocation();
-                PreciseLocation t = data.toLocation;
-                if(t.isSet()) {
-                    return String.format(Locale.US, "%.2f,%.2f,%.2f", t.x - l.getX(), t.y - l.getY(), t.z - l.getZ());
-                } else {
-                    return "null";
-                }
-            }
-            return "unknown";
+        for(MessagePart part : messageParts) {
+            part.append(log, bukkitPlayer, data);
         }
 
-        case REACHDISTANCE:
-            return String.format(Locale.US, "%.2f", data.reachdistance);
-
-        case FALLDISTANCE:
-            return String.format(Locale.US, "%.2f", data.falldistance);
+        return log.toString();
+    }
 
-        case LOCATION_TO:
-            PreciseLocation to = data.toLocation;
-            if(to.isSet()) {
-                return String.format(Locale.US, "%.2f,%.2f,%.2f", to.x, to.y, to.z);
-            } else {
-                return "unknown";
-            }
+    private static void appendBlockLocation(StringBuilder log, SimpleLocation l) {
+        if(l.isSet()) {
+            log.append(l.x).append(' ').append(l.y).append(' ').append(l.z);
+        } else {
+            log.append("null");
+        }
+    }
 
-        case PACKETS:
-            return String.valueOf(data.packets);
+    private static void appendCoordinates(StringBuilder log, double x, double y, double z) {
+        appendDouble(log, x);
+        log.append(',');
+        appendDouble(log, y);
+        log.append(',');
+        appendDouble(log, z);
+    }
 
-        case TEXT:
-            return data.text;
+    /**
+     * Append a number with two decimal places, like "%.2f" would, but
+     * without the expensive String.format
+     */
+    private static void appendDouble(StringBuilder log, double value) {
 
-        case PLACE_LOCATION: {
-            SimpleLocation l = data.placedLocation;
-            if(l.isSet()) {
-                return String.format(Locale.US, "%d %d %d", l.x, l.y, l.z);
-            } else {
-                return "null";
-            }
+        // Too big or not a number, nobody will care about the decimal places
+        if(Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1.0E15D) {
+            log.append(value);
+            return;
         }
 
-        case PLACE_AGAINST: {
-            SimpleLocation l = data.placedAgainstLocation;
-            if(l.isSet()) {
-                return String.format(Locale.US, "%d %d %d", l.x, l.y, l.z);
-            } else {
-                return "null";
-            }
+        if(value < 0) {
+            log.append('-');
+            value = -value;
         }
 
-        case BLOCK_TYPE: {
-            Material type = data.placedType;
-            if(type == null) {
-                return "null";
-            }
-            return type.toString();
-        }
+        final long hundredths = Math.round(value * 100.0D);
+        final int decimals = (int) (hundredths % 100);
 
-        default:
-            return "Evenprime was lazy and forgot to define " + wildcard + ".";
+        log.append(hundredths / 100).append('.');
+        if(decimals < 10) {
+            log.append('0');
         }
+        log.append(decimals);
     }
 }
@@ -1,6 +1,6 @@
 package cc.co.evenprime.bukkit.nocheat.actions.types;
 
-import cc.co.evenprime.bukkit.nocheat.data.LogData;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.log.Colors;
 import cc.co.evenprime.bukkit.nocheat.log.LogLevel;
 
@@ -19,7 +19,7 @@ public class LogAction extends ActionWithParameters {
         this.level = level;
     }
 
-    public String getLogMessage(final LogData ldata) {
-        return super.getMessage(ldata);
+    public String getLogMessage(final String prefix, final NoCheatPlayer player) {
+        return super.getMessage(prefix, player);
     }
 }
@@ -7,8 +7,8 @@ import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.craftbukkit.entity.CraftPlayer;
 import org.bukkit.entity.Player;
-import org.bukkit.util.Vector;
 
+import cc.co.evenprime.bukkit.nocheat.data.BlockTypeCache;
 import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
 
 /**
@@ -17,50 +17,6 @@ import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
  */
 public class CheckUtil {
 
-    /**
-     * Check if a player looks at a target of a specific size, with a specific
-     * precision value (roughly)
-     */
-    public static final double directionCheck(final Player player, final double targetX, final double targetY, final double targetZ, final double targetWidth, final double targetHeight, final double precision) {
-
-        // Eye location of the player
-        final Location eyes = player.getEyeLocation();
-
-        final double factor = Math.sqrt(Math.pow(eyes.getX() - targetX, 2) + Math.pow(eyes.getY() - targetY, 2) + Math.pow(eyes.getZ() - targetZ, 2));
-
-        // View direction of the player
-        final Vector direction = player.getEyeLocation().getDirection();
-
-        final double x = ((double) targetX) - eyes.getX();
-        final double y = ((double) targetY) - eyes.getY();
-        final double z = ((double) targetZ) - eyes.getZ();
-
-        final double xPrediction = factor * direction.getX();
-        final double yPrediction = factor * direction.getY();
-        final double zPrediction = factor * direction.getZ();
-
-        double off = 0.0D;
-
-        off += Math.max(Math.abs(x - xPrediction) - (targetWidth / 2 + precision), 0.0D);
-        off += Math.max(Math.abs(z - zPrediction) - (targetWidth / 2 + precision), 0.0D);
-        off += Math.max(Math.abs(y - yPrediction) - (targetHeight / 2 + precision), 0.0D);
-
-        if(off > 1) {
-            off = Math.sqrt(off);
-        }
-
-        return off;
-    }
-
-    public static final double reachCheck(final Player player, final double targetX, final double targetY, final double targetZ, final double limit) {
-
-        final Location eyes = player.getEyeLocation();
-
-        final double distance = Math.sqrt(Math.pow(eyes.getX() - targetX, 2) + Math.pow(eyes.getY() - targetY, 2) + Math.pow(eyes.getZ() - targetZ, 2));
-
-        return Math.max(distance - limit, 0.0D);
-    }
-
     private final static double magic    = 0.45D;
     private final static double magic2   = 0.55D;
 
@@ -116,16 +72,15 @@ public class CheckUtil {
     /**
      * Check if certain coordinates are considered "on ground"
      * 
-     * @param w
+     * @param world
      *            The world the coordinates belong to
-     * @param values
-     *            The coordinates [lowerX, higherX, Y, lowerZ, higherZ] to be
-     *            checked
-     * @param l
-     *            The precise location that was used for calculation of "values"
+     * @param location
+     *            The precise location that should be checked
+     * @param cache
+     *            The cache to read the block types from
      * @return
      */
-    public static final int isLocationOnGround(final World world, final PreciseLocation location) {
+    public static final int isLocationOnGround(final World world, final PreciseLocation location, final BlockTypeCache cache) {
 
         final int lowerX = lowerBorder(location.x);
         final int upperX = upperBorder(location.x);
@@ -139,14 +94,14 @@ public class CheckUtil {
         // First border: lowerX, lowerZ
         int result = 0;
 
-        result |= canStand(world, lowerX, Y, lowerZ);
-        result |= canStand(world, upperX, Y, lowerZ);
-        result |= canStand(world, upperX, Y, upperZ);
-        result |= canStand(world, lowerX, Y, upperZ);
+        result |= canStand(world, cache, lowerX, Y, lowerZ);
+        result |= canStand(world, cache, upperX, Y, lowerZ);
+        result |= canStand(world, cache, upperX, Y, upperZ);
+        result |= canStand(world, cache, lowerX, Y, upperZ);
 
         if(!isInGround(result)) {
             // Original location: X, Z (allow standing in walls this time)
-            if(isSolid(types[world.getBlockTypeIdAt(Location.locToBlock(location.x), Location.locToBlock(location.y), Location.locToBlock(location.z))])) {
+            if(isSolid(types[cache.getTypeId(world, Location.locToBlock(location.x), Location.locToBlock(location.y), Location.locToBlock(location.z))])) {
                 result |= INGROUND;
             }
         }
@@ -158,15 +113,16 @@ public class CheckUtil {
      * Potential results are: "LIQUID", "ONGROUND", "INGROUND", mixture or 0
      * 
      * @param world
+     * @param cache
      * @param x
      * @param y
      * @param z
      * @return
      */
-    private static final int canStand(final World world, final int x, final int y, final int z) {
+    private static final int canStand(final World world, final BlockTypeCache cache, final int x, final int y, final int z) {
 
-        final int standingIn = types[world.getBlockTypeIdAt(x, y, z)];
-        final int headIn = types[world.getBlockTypeIdAt(x, y + 1, z)];
+        final int standingIn = types[cache.getTypeId(world, x, y, z)];
+        final int headIn = types[cache.getTypeId(world, x, y + 1, z)];
 
         int result = 0;
 
@@ -179,7 +135,7 @@ public class CheckUtil {
             return LADDER;
         }
 
-        final int standingOn = types[world.getBlockTypeIdAt(x, y - 1, z)];
+        final int standingOn = types[cache.getTypeId(world, x, y - 1, z)];
 
         // Player standing with his feet in a (half) block?
         if((isSolid(standingIn) || standingOn == FENCE) && isNonSolid(headIn) && standingIn != FENCE) {
@@ -187,7 +143,7 @@ public class CheckUtil {
         }
 
         // Player standing on a block?
-        if((isLadder(headIn) || isLadder(standingIn)) || ((isSolid(standingOn) || types[world.getBlockTypeIdAt(x, y - 2, z)] == FENCE) && isNonSolid(standingIn) && standingOn != FENCE)) {
+        if((isLadder(headIn) || isLadder(standingIn)) || ((isSolid(standingOn) || types[cache.getTypeId(world, x, y - 2, z)] == FENCE) && isNonSolid(standingIn) && standingOn != FENCE)) {
             result |= ONGROUND;
         }
 
@@ -0,0 +1,81 @@
+package cc.co.evenprime.bukkit.nocheat.checks;
+
+import cc.co.evenprime.bukkit.nocheat.data.PlayerSnapshot;
+
+/**
+ * How a player sees a target: the way from his eyes to the target and the
+ * direction he looks at. Everything gets calculated from the position and
+ * rotation in the snapshot of the player, without creating Location or
+ * Vector objects. Checks keep one instance and reuse it, so only use it on the
+ * main thread.
+ * 
+ */
+public final class Sight {
+
+    // From the eyes of the player to the target
+    private double dx, dy, dz;
+    private double distanceSquared;
+
+    private float  yaw, pitch;
+
+    /**
+     * Look from the eyes of the player at the center of a target
+     */
+    public final Sight set(final PlayerSnapshot player, final double targetX, final double targetY, final double targetZ) {
+
+        dx = targetX - player.x;
+        dy = targetY - player.eyeY;
+        dz = targetZ - player.z;
+        distanceSquared = dx * dx + dy * dy + dz * dz;
+
+        yaw = player.yaw;
+        pitch = player.pitch;
+
+        return this;
+    }
+
+    /**
+     * How much further away than "limit" the target is, or 0 if it is close
+     * enough
+     */
+    public final double reachExcess(final double limit) {
+
+        // Most players are within reach, no need for a square root then
+        if(distanceSquared <= limit * limit)
+            return 0.0D;
+
+        return Math.sqrt(distanceSquared) - limit;
+    }
+
+    /**
+     * Check if the player looks at a target of a specific size, with a
+     * specific precision value (roughly)
+     * 
+     * @return how far the player looks past the target, 0 if he looks at it
+     */
+    public final double directionOff(final double targetWidth, final double targetHeight, final double precision) {
+
+        final double distance = Math.sqrt(distanceSquared);
+
+        // View direction of the player, like Location.getDirection()
+        final double yawRadians = Math.toRadians(yaw);
+        final double pitchRadians = Math.toRadians(pitch);
+        final double horizontal = Math.cos(pitchRadians);
+
+        final double xPrediction = distance * -horizontal * Math.sin(yawRadians);
+        final double yPrediction = distance * -Math.sin(pitchRadians);
+        final double zPrediction = distance * horizontal * Math.cos(yawRadians);
+
+        double off = 0.0D;
+
+        off += Math.max(Math.abs(dx - xPrediction) - (targetWidth / 2 + precision), 0.0D);
+        off += Math.max(Math.abs(dz - zPrediction) - (targetWidth / 2 + precision), 0.0D);
+        off += Math.max(Math.abs(dy - yPrediction) - (targetHeight / 2 + precision), 0.0D);
+
+        if(off > 1) {
+            off = Math.sqrt(off);
+        }
+
+        return off;
+    }
+}
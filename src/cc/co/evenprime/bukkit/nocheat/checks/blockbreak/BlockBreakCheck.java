@@ -1,12 +1,14 @@
 package cc.co.evenprime.bukkit.nocheat.checks.blockbreak;
 
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.checks.Sight;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
-import cc.co.evenprime.bukkit.nocheat.data.BaseData;
+import cc.co.evenprime.bukkit.nocheat.debug.Performance;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
 /**
  * The main Check class for blockbreak event checking. It will decide which
@@ -21,36 +23,55 @@ public class BlockBreakCheck {
     private final NoswingCheck   noswingCheck;
     private final NoCheat        plugin;
 
+    // Shared by the reach and direction check
+    private final Sight          sight = new Sight();
+
+    private final Performance    noswingPerformance;
+    private final Performance    reachPerformance;
+    private final Performance    directionPerformance;
+
     public BlockBreakCheck(NoCheat plugin) {
 
         this.plugin = plugin;
         this.reachCheck = new ReachCheck(plugin);
         this.directionCheck = new DirectionCheck(plugin);
         this.noswingCheck = new NoswingCheck(plugin);
+
+        this.noswingPerformance = plugin.getPerformance(Type.BLOCKBREAK_NOSWING);
+        this.reachPerformance = plugin.getPerformance(Type.BLOCKBREAK_REACH);
+        this.directionPerformance = plugin.getPerformance(Type.BLOCKBREAK_DIRECTION);
     }
 
-    public boolean check(final Player player, final Block brokenBlock, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Block brokenBlock, final ConfigurationCache cc) {
 
         boolean cancel = false;
 
         // Reach check only if not in creative mode!
-        final boolean reach = cc.blockbreak.reachCheck && !player.hasPermission(Permissions.BLOCKBREAK_REACH);
-        final boolean direction = cc.blockbreak.directionCheck && !player.hasPermission(Permissions.BLOCKBREAK_DIRECTION);
-        final boolean noswing = cc.blockbreak.noswingCheck && !player.hasPermission(Permissions.BLOCKBREAK_NOSWING);
+        final boolean reach = cc.blockbreak.reachCheck && !player.hasPermission(CheckPermission.BLOCKBREAK_REACH);
+        final boolean direction = cc.blockbreak.directionCheck && !player.hasPermission(CheckPermission.BLOCKBREAK_DIRECTION);
+        final boolean noswing = cc.blockbreak.noswingCheck && !player.hasPermission(CheckPermission.BLOCKBREAK_NOSWING);
 
         if((noswing || reach || direction) && brokenBlock != null) {
 
-            final BaseData data = plugin.getData(player.getName());
+            if(reach || direction) {
+                sight.set(player.getSnapshot(), brokenBlock.getX() + 0.5D, brokenBlock.getY() + 0.5D, brokenBlock.getZ() + 0.5D);
+            }
 
-            if(noswing) {
-                cancel = noswingCheck.check(player, data, cc);
+            if(noswing && !noswingPerformance.isShed()) {
+                final long start = noswingPerformance.start();
+                cancel = noswingCheck.check(player, cc);
+                noswingPerformance.stop(start);
             }
-            if(!cancel && reach) {
-                cancel = reachCheck.check(player, data, brokenBlock, cc);
+            if(!cancel && reach && !reachPerformance.isShed()) {
+                final long start = reachPerformance.start();
+                cancel = reachCheck.check(player, sight, cc);
+                reachPerformance.stop(start);
             }
 
-            if(!cancel && direction) {
-                cancel = directionCheck.check(player, data, brokenBlock, cc);
+            if(!cancel && direction && !directionPerformance.isShed()) {
+                final long start = directionPerformance.start();
+                cancel = directionCheck.check(player, brokenBlock, sight, cc);
+                directionPerformance.stop(start);
             }
         }
         return cancel;
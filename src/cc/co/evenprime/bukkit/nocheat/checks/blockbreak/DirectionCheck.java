@@ -1,10 +1,10 @@
 package cc.co.evenprime.bukkit.nocheat.checks.blockbreak;
 
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.checks.Sight;
 import cc.co.evenprime.bukkit.nocheat.config.cache.CCBlockBreak;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
@@ -23,7 +23,9 @@ public class DirectionCheck {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final BaseData data, final Block brokenBlock, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Block brokenBlock, final Sight sight, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         final BlockBreakData blockbreak = data.blockbreak;
         final CCBlockBreak ccblockbreak = cc.blockbreak;
@@ -37,7 +39,7 @@ public class DirectionCheck {
 
         boolean cancel = false;
 
-        double off = CheckUtil.directionCheck(player, brokenBlock.getX() + 0.5D, brokenBlock.getY() + 0.5D, brokenBlock.getZ() + 0.5D, 1D, 1D, ccblockbreak.directionPrecision);
+        double off = sight.directionOff(1D, 1D, ccblockbreak.directionPrecision);
 
         final long time = System.currentTimeMillis();
 
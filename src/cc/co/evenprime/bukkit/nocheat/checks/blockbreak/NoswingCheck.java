@@ -1,8 +1,8 @@
 package cc.co.evenprime.bukkit.nocheat.checks.blockbreak;
 
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 
@@ -14,7 +14,9 @@ public class NoswingCheck {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final BaseData data, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         boolean cancel = false;
 
@@ -1,11 +1,10 @@
 package cc.co.evenprime.bukkit.nocheat.checks.blockbreak;
 
 import org.bukkit.GameMode;
-import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.checks.Sight;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.BlockBreakData;
@@ -23,13 +22,15 @@ public class ReachCheck {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final BaseData data, final Block brokenBlock, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Sight sight, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         boolean cancel = false;
 
         final BlockBreakData blockbreak = data.blockbreak;
 
-        final double distance = CheckUtil.reachCheck(player, brokenBlock.getX() + 0.5D, brokenBlock.getY() + 0.5D, brokenBlock.getZ() + 0.5D,cc.blockbreak.reachDistance);
+        final double distance = sight.reachExcess(cc.blockbreak.reachDistance);
 
         if(distance > 0D) {
             // Player failed the check
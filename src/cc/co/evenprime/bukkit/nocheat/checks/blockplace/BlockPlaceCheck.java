@@ -1,12 +1,13 @@
 package cc.co.evenprime.bukkit.nocheat.checks.blockplace;
 
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
-import cc.co.evenprime.bukkit.nocheat.data.BaseData;
+import cc.co.evenprime.bukkit.nocheat.debug.Performance;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
 /**
  * 
@@ -18,6 +19,10 @@ public class BlockPlaceCheck {
     private final NoswingCheck  noswingCheck;
     private final NoCheat       plugin;
 
+    private final Performance   noswingPerformance;
+    private final Performance   reachPerformance;
+    private final Performance   onLiquidPerformance;
+
     public BlockPlaceCheck(NoCheat plugin) {
 
         this.plugin = plugin;
@@ -25,29 +30,36 @@ public class BlockPlaceCheck {
         reachCheck = new ReachCheck(plugin);
         onLiquidCheck = new OnLiquidCheck(plugin);
         noswingCheck = new NoswingCheck(plugin);
+
+        this.noswingPerformance = plugin.getPerformance(Type.BLOCKPLACE_NOSWING);
+        this.reachPerformance = plugin.getPerformance(Type.BLOCKPLACE_REACH);
+        this.onLiquidPerformance = plugin.getPerformance(Type.BLOCKPLACE_ONLIQUID);
     }
 
-    public boolean check(final Player player, final Block blockPlaced, final Block blockPlacedAgainst, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Block blockPlaced, final Block blockPlacedAgainst, final ConfigurationCache cc) {
 
         boolean cancel = false;
 
         // Which checks are going to be executed?
-        final boolean onliquid = cc.blockplace.onliquidCheck && !player.hasPermission(Permissions.BLOCKPLACE_ONLIQUID);
-        final boolean reach = cc.blockplace.reachCheck && !player.hasPermission(Permissions.BLOCKPLACE_REACH);
-        final boolean noswing = cc.blockplace.noswingCheck && !player.hasPermission(Permissions.BLOCKPLACE_NOSWING);
-
-
-        final BaseData data = plugin.getData(player.getName());
+        final boolean onliquid = cc.blockplace.onliquidCheck && !player.hasPermission(CheckPermission.BLOCKPLACE_ONLIQUID);
+        final boolean reach = cc.blockplace.reachCheck && !player.hasPermission(CheckPermission.BLOCKPLACE_REACH);
+        final boolean noswing = cc.blockplace.noswingCheck && !player.hasPermission(CheckPermission.BLOCKPLACE_NOSWING);
 
-        if(noswing) {
-            cancel = noswingCheck.check(player, data, cc);
+        if(noswing && !noswingPerformance.isShed()) {
+            final long start = noswingPerformance.start();
+            cancel = noswingCheck.check(player, cc);
+            noswingPerformance.stop(start);
         }
-        if(!cancel && reach) {
-            cancel = reachCheck.check(player, data, blockPlacedAgainst, cc);
+        if(!cancel && reach && !reachPerformance.isShed()) {
+            final long start = reachPerformance.start();
+            cancel = reachCheck.check(player, blockPlacedAgainst, cc);
+            reachPerformance.stop(start);
         }
 
-        if(!cancel && onliquid) {
-            cancel = onLiquidCheck.check(player, data, blockPlaced, blockPlacedAgainst, cc);
+        if(!cancel && onliquid && !onLiquidPerformance.isShed()) {
+            final long start = onLiquidPerformance.start();
+            cancel = onLiquidCheck.check(player, blockPlaced, blockPlacedAgainst, cc);
+            onLiquidPerformance.stop(start);
         }
 
         return cancel;
@@ -3,9 +3,9 @@ package cc.co.evenprime.bukkit.nocheat.checks.blockplace;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.BlockPlaceData;
@@ -22,7 +22,9 @@ public class OnLiquidCheck {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final BaseData data, final Block blockPlaced, final Block blockPlacedAgainst, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Block blockPlaced, final Block blockPlacedAgainst, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         boolean cancel = false;
 
@@ -1,10 +1,10 @@
 package cc.co.evenprime.bukkit.nocheat.checks.blockplace;
 
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.checks.Sight;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.BlockPlaceData;
@@ -17,16 +17,19 @@ import cc.co.evenprime.bukkit.nocheat.data.BlockPlaceData;
 public class ReachCheck {
 
     private final NoCheat plugin;
+    private final Sight   sight = new Sight();
 
     public ReachCheck(NoCheat plugin) {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final BaseData data, final Block placedAgainstBlock, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Block placedAgainstBlock, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         boolean cancel = false;
 
-        final double distance = CheckUtil.reachCheck(player, placedAgainstBlock.getX() + 0.5D, placedAgainstBlock.getY() + 0.5D, placedAgainstBlock.getZ() + 0.5D, cc.blockplace.reachDistance);
+        final double distance = sight.set(player.getSnapshot(), placedAgainstBlock.getX() + 0.5D, placedAgainstBlock.getY() + 0.5D, placedAgainstBlock.getZ() + 0.5D).reachExcess(cc.blockplace.reachDistance);
 
         BlockPlaceData blockplace = data.blockplace;
 
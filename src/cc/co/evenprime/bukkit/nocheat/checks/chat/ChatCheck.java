@@ -1,9 +1,8 @@
 package cc.co.evenprime.bukkit.nocheat.checks.chat;
 
-import org.bukkit.entity.Player;
-
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.CCChat;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
@@ -21,49 +20,74 @@ public class ChatCheck {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final String message, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final String message, final ConfigurationCache cc) {
 
         boolean cancel = false;
         
         final CCChat ccchat = cc.chat;
 
-        final boolean spamCheck = ccchat.spamCheck && !player.hasPermission(Permissions.CHAT_SPAM);
+        final boolean spamCheck = ccchat.spamCheck && !hasPermission(player, CheckPermission.CHAT_SPAM);
 
         if(spamCheck) {
 
             // Maybe it's a command and on the whitelist
-            for(String s : ccchat.spamWhitelist) {
-                if(message.startsWith(s)) {
-                    // It is
-                    return false;
-                }
+            if(ccchat.spamWhitelist.isPrefixOf(message)) {
+                // It is
+                return false;
             }
 
             final int time = plugin.getIngameSeconds();
 
-            final BaseData data = plugin.getData(player.getName());
+            final BaseData data = player.getData();
             final ChatData chat = data.chat;
 
-            if(chat.spamLasttime + ccchat.spamTimeframe <= time) {
-                chat.spamLasttime = time;
-                chat.messageCount = 0;
-            }
-
-            chat.messageCount++;
+            // May be called by several threads at once. Starting a new
+            // timeframe and counting the message happen at once, so no
+            // message gets lost.
+            long current, next;
+            do {
+                current = chat.spamCounter.get();
+                if((int) (current >>> 32) + ccchat.spamTimeframe <= time) {
+                    next = ((long) time << 32) | 1;
+                } else {
+                    next = current + 1;
+                }
+            } while(!chat.spamCounter.compareAndSet(current, next));
 
-            if(chat.messageCount > ccchat.spamLimit) {
+            final int messageCount = (int) next;
 
-                // Prepare some event-specific values for logging and custom
-                // actions
+            if(messageCount > ccchat.spamLimit) {
 
-                data.log.check = "chat.spam";
-                data.log.text = message;
+                if(plugin.isMainThread()) {
+                    // Prepare some event-specific values for logging and
+                    // custom actions
+                    data.log.check = "chat.spam";
+                    data.log.text = message;
 
-                cancel = plugin.execute(player, ccchat.spamActions, chat.messageCount - ccchat.spamLimit, chat.history, cc);
+                    cancel = plugin.execute(player, ccchat.spamActions, messageCount - ccchat.spamLimit, chat.history, cc);
+                } else {
+                    // The log data belongs to the main thread, so the other
+                    // actions get executed there later
+                    cancel = plugin.executeLater(player, ccchat.spamActions, messageCount - ccchat.spamLimit, chat.history, cc, "chat.spam", message);
+                }
             }
         }
 
         return cancel;
     }
 
+    /**
+     * Other threads than the main thread must not ask bukkit, so they only
+     * know about permissions that were asked for already. If they weren't,
+     * the player is treated as having none.
+     */
+    private boolean hasPermission(NoCheatPlayer player, CheckPermission permission) {
+
+        if(plugin.isMainThread()) {
+            return player.hasPermission(permission);
+        }
+
+        return player.hasCachedPermission(permission);
+    }
+
 }
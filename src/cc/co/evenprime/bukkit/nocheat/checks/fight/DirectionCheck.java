@@ -1,38 +1,57 @@
 package cc.co.evenprime.bukkit.nocheat.checks.fight;
 
+import org.bukkit.Location;
 import org.bukkit.craftbukkit.entity.CraftEntity;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.checks.Sight;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 
 public class DirectionCheck {
 
     private final NoCheat plugin;
+    private final Sight   sight = new Sight();
 
     public DirectionCheck(NoCheat plugin) {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final BaseData data, final Entity damagee, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Entity damagee, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         boolean cancel = false;
 
         final long time = System.currentTimeMillis();
 
-        // Get the width of the damagee
-        net.minecraft.server.Entity entity = ((CraftEntity) damagee).getHandle();
+        // Get the position and width of the damagee
+        final double x, y, z;
+        final float width;
 
-        final float width = entity.length > entity.width ? entity.length : entity.width;
+        if(damagee instanceof CraftEntity) {
+            final net.minecraft.server.Entity entity = ((CraftEntity) damagee).getHandle();
+            x = entity.locX;
+            y = entity.locY;
+            z = entity.locZ;
+            width = entity.length > entity.width ? entity.length : entity.width;
+        } else {
+            // Not a real entity, e.g. a NPC of another plugin. Assume it's
+            // as wide as a player.
+            final Location l = damagee.getLocation();
+            x = l.getX();
+            y = l.getY();
+            z = l.getZ();
+            width = 0.6F;
+        }
 
         // height = 2.0D as minecraft doesn't store the height of entities,
         // and that should be enough. Because entityLocations are always set
         // to center bottom of the hitbox, increase "y" location by 1/2
         // height to get the "center" of the hitbox
-        final double off = CheckUtil.directionCheck(player, entity.locX, entity.locY + 1.0D, entity.locZ, width, 2.0D, cc.fight.directionPrecision);
+        final double off = sight.set(player.getSnapshot(), x, y + 1.0D, z).directionOff(width, 2.0D, cc.fight.directionPrecision);
 
         if(off < 0.1D) {
             // Player did probably nothing wrong
@@ -1,12 +1,13 @@
 package cc.co.evenprime.bukkit.nocheat.checks.fight;
 
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
-import cc.co.evenprime.bukkit.nocheat.data.BaseData;
+import cc.co.evenprime.bukkit.nocheat.debug.Performance;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
 /**
  * Check various things related to fighting players/entities
@@ -20,6 +21,10 @@ public class FightCheck {
     private final SelfhitCheck   selfhitCheck;
     private final NoswingCheck   noswingCheck;
 
+    private final Performance    noswingPerformance;
+    private final Performance    directionPerformance;
+    private final Performance    selfhitPerformance;
+
     public FightCheck(NoCheat plugin) {
 
         this.plugin = plugin;
@@ -27,27 +32,35 @@ public class FightCheck {
         this.directionCheck = new DirectionCheck(plugin);
         this.selfhitCheck = new SelfhitCheck(plugin);
         this.noswingCheck = new NoswingCheck(plugin);
+
+        this.noswingPerformance = plugin.getPerformance(Type.FIGHT_NOSWING);
+        this.directionPerformance = plugin.getPerformance(Type.FIGHT_DIRECTION);
+        this.selfhitPerformance = plugin.getPerformance(Type.FIGHT_SELFHIT);
     }
 
-    public boolean check(final Player player, final Entity damagee, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Entity damagee, final ConfigurationCache cc) {
 
         boolean cancel = false;
 
-        final boolean selfhitcheck = cc.fight.selfhitCheck && !player.hasPermission(Permissions.FIGHT_SELFHIT);
-        final boolean directioncheck = cc.fight.directionCheck && !player.hasPermission(Permissions.FIGHT_DIRECTION);
-        final boolean noswingcheck = cc.fight.noswingCheck && !player.hasPermission(Permissions.FIGHT_NOSWING);
-
-        BaseData data = plugin.getData(player.getName());
+        final boolean selfhitcheck = cc.fight.selfhitCheck && !player.hasPermission(CheckPermission.FIGHT_SELFHIT);
+        final boolean directioncheck = cc.fight.directionCheck && !player.hasPermission(CheckPermission.FIGHT_DIRECTION);
+        final boolean noswingcheck = cc.fight.noswingCheck && !player.hasPermission(CheckPermission.FIGHT_NOSWING);
 
-        if(noswingcheck) {
-            cancel = noswingCheck.check(player, data, cc);
+        if(noswingcheck && !noswingPerformance.isShed()) {
+            final long start = noswingPerformance.start();
+            cancel = noswingCheck.check(player, cc);
+            noswingPerformance.stop(start);
         }
-        if(!cancel && directioncheck) {
-            cancel = directionCheck.check(player, data, damagee, cc);
+        if(!cancel && directioncheck && !directionPerformance.isShed()) {
+            final long start = directionPerformance.start();
+            cancel = directionCheck.check(player, damagee, cc);
+            directionPerformance.stop(start);
         }
 
-        if(!cancel && selfhitcheck) {
-            cancel = selfhitCheck.check(player, data, damagee, cc);
+        if(!cancel && selfhitcheck && !selfhitPerformance.isShed()) {
+            final long start = selfhitPerformance.start();
+            cancel = selfhitCheck.check(player, damagee, cc);
+            selfhitPerformance.stop(start);
         }
 
         return cancel;
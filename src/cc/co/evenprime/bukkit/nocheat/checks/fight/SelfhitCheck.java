@@ -1,9 +1,9 @@
 package cc.co.evenprime.bukkit.nocheat.checks.fight;
 
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 
@@ -15,11 +15,13 @@ public class SelfhitCheck {
         this.plugin = plugin;
     }
 
-    public boolean check(final Player player, final BaseData data, final Entity damagee, final ConfigurationCache cc) {
+    public boolean check(final NoCheatPlayer player, final Entity damagee, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         boolean cancel = false;
 
-        if(player.equals(damagee)) {
+        if(player.getPlayer().equals(damagee)) {
 
             // Player failed the check obviously
 
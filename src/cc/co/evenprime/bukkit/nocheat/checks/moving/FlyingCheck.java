@@ -1,13 +1,9 @@
 package cc.co.evenprime.bukkit.nocheat.checks.moving;
 
-import net.minecraft.server.EntityPlayer;
-
-import org.bukkit.entity.Player;
 import org.bukkit.GameMode;
-import org.bukkit.craftbukkit.entity.CraftPlayer;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.MovingData;
@@ -35,7 +31,9 @@ public class FlyingCheck {
         this.plugin = plugin;
     }
 
-    public PreciseLocation check(final Player player, final BaseData data, final ConfigurationCache cc, boolean fromOnOrInGround) {
+    public PreciseLocation check(final NoCheatPlayer player, final ConfigurationCache cc, boolean fromOnOrInGround) {
+
+        final BaseData data = player.getData();
 
         final MovingData moving = data.moving;
         final PreciseLocation to = moving.to;
@@ -62,12 +60,9 @@ public class FlyingCheck {
         // horizontal
         double speedLimitHorizontal = ccmoving.flyingSpeedLimitHorizontal;
 
-        EntityPlayer p = ((CraftPlayer) player).getHandle();
-
-
         result += Math.max(0.0D, horizontalDistance - moving.horizFreedom - speedLimitHorizontal);
 
-        boolean sprinting = CheckUtil.isSprinting(player);
+        boolean sprinting = player.getSnapshot().sprinting;
 
         moving.bunnyhopdelay--;
 
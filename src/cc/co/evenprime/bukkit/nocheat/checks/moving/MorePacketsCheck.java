@@ -1,8 +1,7 @@
 package cc.co.evenprime.bukkit.nocheat.checks.moving;
 
-import org.bukkit.entity.Player;
-
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.MovingData;
@@ -82,7 +81,9 @@ public class MorePacketsCheck {
      * 8. reset packetCounter, wait for next 20 ticks to pass by.
      * 
      */
-    public PreciseLocation check(final Player player, final BaseData data, final ConfigurationCache cc) {
+    public PreciseLocation check(final NoCheatPlayer player, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         PreciseLocation newToLocation = null;
 
@@ -128,9 +129,10 @@ public class MorePacketsCheck {
                     newToLocation = moving.morePacketsSetbackPoint;
             }
 
-            // No new setbackLocation was chosen
+            // No new setbackLocation was chosen, use where the player is
+            // right now
             if(newToLocation == null) {
-                moving.morePacketsSetbackPoint.set(player.getLocation());
+                moving.morePacketsSetbackPoint.set(moving.from);
             }
 
             if(moving.morePacketsViolationLevel > 0)
@@ -1,8 +1,8 @@
 package cc.co.evenprime.bukkit.nocheat.checks.moving;
 
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.MovingData;
@@ -24,7 +24,9 @@ public class NoFallCheck {
      * Calculate if and how much the player "failed" this check.
      * 
      */
-    public void check(final Player player, final BaseData data, final boolean fromOnOrInGround, final boolean toOnOrInGround, final ConfigurationCache cc) {
+    public void check(final NoCheatPlayer player, final boolean fromOnOrInGround, final boolean toOnOrInGround, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         final MovingData moving = data.moving;
 
@@ -36,15 +38,15 @@ public class NoFallCheck {
 
         // If we increased fall height before for no good reason, reduce now by
         // the same amount
-        if(player.getFallDistance() > moving.lastAddedFallDistance) {
-            player.setFallDistance(player.getFallDistance() - moving.lastAddedFallDistance);
+        if(player.getPlayer().getFallDistance() > moving.lastAddedFallDistance) {
+            player.getPlayer().setFallDistance(player.getPlayer().getFallDistance() - moving.lastAddedFallDistance);
         }
 
         moving.lastAddedFallDistance = 0;
 
         // We want to know if the fallDistance recorded by the game is smaller
         // than the fall distance recorded by the plugin
-        final float difference = moving.fallDistance - player.getFallDistance();
+        final float difference = moving.fallDistance - player.getPlayer().getFallDistance();
 
         if(difference > 1.0F && toOnOrInGround && moving.fallDistance > 2.0F) {
             moving.nofallViolationLevel += difference;
@@ -61,11 +63,11 @@ public class NoFallCheck {
                 // Increase the fall distance a bit :)
                 final float totalDistance = moving.fallDistance + difference * (cc.moving.nofallMultiplier - 1.0F);
 
-                player.setFallDistance(totalDistance);
+                player.getPlayer().setFallDistance(totalDistance);
             }
 
             data.moving.fallDistance = 0F;
-	    }/*else if(player.getFallDistance() > 3.0F) {
+	    }/*else if(player.getPlayer().getFallDistance() > 3.0F) {
 	    	System.out.println("oof");
 	    	moving.nofallViolationLevel += difference;
 
@@ -81,7 +83,7 @@ public class NoFallCheck {
                 // Increase the fall distance a bit :)
                 final float totalDistance = moving.fallDistance + difference * (cc.moving.nofallMultiplier - 1.0F);
 
-                player.setFallDistance(totalDistance);
+                player.getPlayer().setFallDistance(totalDistance);
             }
         }*/
 
@@ -104,7 +106,7 @@ public class NoFallCheck {
 
             if(dist > 1.0F) {
                 moving.lastAddedFallDistance = dist;
-                player.setFallDistance(player.getFallDistance() + dist);
+                player.getPlayer().setFallDistance(player.getPlayer().getFallDistance() + dist);
             } else {
                 moving.lastAddedFallDistance = 0.0F;
             }
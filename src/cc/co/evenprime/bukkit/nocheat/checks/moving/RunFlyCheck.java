@@ -1,18 +1,21 @@
 package cc.co.evenprime.bukkit.nocheat.checks.moving;
 
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.CCMoving;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.MovingData;
+import cc.co.evenprime.bukkit.nocheat.data.PlayerSnapshot;
 import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
-import cc.co.evenprime.bukkit.nocheat.data.SimpleLocation;
+import cc.co.evenprime.bukkit.nocheat.debug.Performance;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
 /**
  * The main Check class for Move event checking. It will decide which checks
@@ -29,6 +32,10 @@ public class RunFlyCheck {
 
     private final NoCheat          plugin;
 
+    private final Performance      runningPerformance;
+    private final Performance      flyingPerformance;
+    private final Performance      morePacketsPerformance;
+
     public RunFlyCheck(NoCheat plugin) {
         this.plugin = plugin;
 
@@ -36,6 +43,10 @@ public class RunFlyCheck {
         this.noFallCheck = new NoFallCheck(plugin);
         this.runningCheck = new RunningCheck(plugin, noFallCheck);
         this.morePacketsCheck = new MorePacketsCheck(plugin);
+
+        this.runningPerformance = plugin.getPerformance(Type.MOVING_RUNNING);
+        this.flyingPerformance = plugin.getPerformance(Type.MOVING_FLYING);
+        this.morePacketsPerformance = plugin.getPerformance(Type.MOVING_MOREPACKETS);
     }
 
     /**
@@ -44,10 +55,12 @@ public class RunFlyCheck {
      * @param event
      * @return
      */
-    public PreciseLocation check(final Player player, final BaseData data, final ConfigurationCache cc) {
+    public PreciseLocation check(final NoCheatPlayer player, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         // Players in vehicles are of no interest
-        if(player.isInsideVehicle())
+        if(player.getSnapshot().insideVehicle)
             return null;
 
         /**
@@ -75,24 +88,39 @@ public class RunFlyCheck {
         final CCMoving ccmoving = cc.moving;
 
         /************* DECIDE WHICH CHECKS NEED TO BE RUN *************/
-        final boolean runflyCheck = ccmoving.runflyCheck && !player.hasPermission(Permissions.MOVE_RUNFLY);
-        final boolean flyAllowed = ccmoving.allowFlying || player.hasPermission(Permissions.MOVE_FLY);
-        final boolean morepacketsCheck = ccmoving.morePacketsCheck && !player.hasPermission(Permissions.MOVE_MOREPACKETS);
+        final boolean runflyCheck = ccmoving.runflyCheck && !player.hasPermission(CheckPermission.MOVE_RUNFLY);
+        final boolean flyAllowed = ccmoving.allowFlying || player.hasPermission(CheckPermission.MOVE_FLY);
+        final boolean morepacketsCheck = ccmoving.morePacketsCheck && !player.hasPermission(CheckPermission.MOVE_MOREPACKETS);
 
         /********************* EXECUTE THE FLY/JUMP/RUNNING CHECK ********************/
         // If the player is not allowed to fly and not allowed to run
         if(runflyCheck) {
-            if(flyAllowed) {
-                newTo = flyingCheck.check(player, data, cc, morepacketsCheck);
+            final Performance performance = flyAllowed ? flyingPerformance : runningPerformance;
+
+            if(performance.isShed()) {
+                // What the check knows would be outdated once it runs again
+                moving.clearRunFlyData();
+            } else if(flyAllowed) {
+                final long start = flyingPerformance.start();
+                newTo = flyingCheck.check(player, cc, morepacketsCheck);
+                flyingPerformance.stop(start);
             } else {
-                newTo = runningCheck.check(player, data, cc);
+                final long start = runningPerformance.start();
+                newTo = runningCheck.check(player, cc);
+                runningPerformance.stop(start);
             }
         }
 
         /********* EXECUTE THE MOREPACKETS CHECK ********************/
 
         if(newTo == null && morepacketsCheck) {
-            newTo = morePacketsCheck.check(player, data, cc);
+            if(morePacketsPerformance.isShed()) {
+                moving.clearMorePacketsData();
+                return null;
+            }
+            final long start = morePacketsPerformance.start();
+            newTo = morePacketsCheck.check(player, cc);
+            morePacketsPerformance.stop(start);
         }
 
         return newTo;
@@ -103,25 +131,31 @@ public class RunFlyCheck {
      * positives
      * with the move check(s).
      */
-    public void blockPlaced(Player player, Block blockPlaced) {
+    public void blockPlaced(NoCheatPlayer player, Block blockPlaced) {
 
-        BaseData data = plugin.getData(player.getName());
+        final BaseData data = player.getData();
 
         if(blockPlaced == null || !data.moving.runflySetBackPoint.isSet()) {
             return;
         }
 
-        SimpleLocation lblock = new SimpleLocation();
-        lblock.set(blockPlaced);
-        SimpleLocation lplayer = new SimpleLocation();
-        lplayer.setLocation(player.getLocation());
+        final int blockX = blockPlaced.getX();
+        final int blockY = blockPlaced.getY();
+        final int blockZ = blockPlaced.getZ();
+
+        // Read the position from the snapshot, "getLocation()" would create a
+        // new Location object every time
+        final PlayerSnapshot snapshot = player.getSnapshot();
+        final int playerX = Location.locToBlock(snapshot.x);
+        final int playerY = Location.locToBlock(snapshot.y);
+        final int playerZ = Location.locToBlock(snapshot.z);
 
-        if(Math.abs(lplayer.x - lblock.x) <= 1 && Math.abs(lplayer.z - lblock.z) <= 1 && lplayer.y - lblock.y >= 0 && lplayer.y - lblock.y <= 2) {
+        if(Math.abs(playerX - blockX) <= 1 && Math.abs(playerZ - blockZ) <= 1 && playerY - blockY >= 0 && playerY - blockY <= 2) {
 
             int type = CheckUtil.getType(blockPlaced.getTypeId());
             if(CheckUtil.isSolid(type) || CheckUtil.isLiquid(type)) {
-                if(lblock.y + 1 >= data.moving.runflySetBackPoint.y) {
-                    data.moving.runflySetBackPoint.y = (lblock.y + 1);
+                if(blockY + 1 >= data.moving.runflySetBackPoint.y) {
+                    data.moving.runflySetBackPoint.y = (blockY + 1);
                     data.moving.jumpPhase = 0;
                 }
             }
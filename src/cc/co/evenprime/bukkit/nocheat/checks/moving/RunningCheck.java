@@ -1,18 +1,19 @@
 package cc.co.evenprime.bukkit.nocheat.checks.moving;
 
-import net.minecraft.server.EntityPlayer;
-
-import org.bukkit.craftbukkit.entity.CraftPlayer;
-import org.bukkit.entity.Player;
+import org.bukkit.World;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.CCMoving;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
+import cc.co.evenprime.bukkit.nocheat.data.BlockTypeCache;
 import cc.co.evenprime.bukkit.nocheat.data.MovingData;
 import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
+import cc.co.evenprime.bukkit.nocheat.debug.Performance;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
 /**
  * The counterpart to the FlyingCheck. People that are not allowed to fly
@@ -33,12 +34,17 @@ public class RunningCheck {
 
     private final NoFallCheck   noFallCheck;
 
+    private final Performance   noFallPerformance;
+
     public RunningCheck(NoCheat plugin, NoFallCheck noFallCheck) {
         this.plugin = plugin;
         this.noFallCheck = noFallCheck;
+        this.noFallPerformance = plugin.getPerformance(Type.MOVING_NOFALL);
     }
 
-    public PreciseLocation check(final Player player, final BaseData data, final ConfigurationCache cc) {
+    public PreciseLocation check(final NoCheatPlayer player, final ConfigurationCache cc) {
+
+        final BaseData data = player.getData();
 
         // Some shortcuts:
         final MovingData moving = data.moving;
@@ -57,8 +63,23 @@ public class RunningCheck {
         }
 
         // To know if a player "is on ground" is useful
-        final int fromType = CheckUtil.isLocationOnGround(player.getWorld(), from);
-        final int toType = CheckUtil.isLocationOnGround(player.getWorld(), to);
+        final World world = player.getSnapshot().world;
+        final int fromType;
+
+        // Most of the time "from" is the "to" of the previous event, then
+        // reuse that result if no blocks changed there in the meantime
+        if(world == moving.lastToWorld && from.equals(moving.lastTo) && moving.lastToStamp == BlockTypeCache.getStamp((int) Math.floor(from.x), (int) Math.floor(from.z))) {
+            fromType = moving.lastToType;
+        } else {
+            fromType = CheckUtil.isLocationOnGround(world, from, moving.blockTypes);
+        }
+
+        final int toType = CheckUtil.isLocationOnGround(world, to, moving.blockTypes);
+
+        moving.lastTo.set(to);
+        moving.lastToWorld = world;
+        moving.lastToStamp = BlockTypeCache.getStamp((int) Math.floor(to.x), (int) Math.floor(to.z));
+        moving.lastToType = toType;
 
         final boolean fromOnGround = CheckUtil.isOnGround(fromType);
         final boolean fromInGround = CheckUtil.isInGround(fromType);
@@ -119,10 +140,12 @@ public class RunningCheck {
         }
 
         /********* EXECUTE THE NOFALL CHECK ********************/
-        final boolean checkNoFall = cc.moving.nofallCheck && !player.hasPermission(Permissions.MOVE_NOFALL);
+        final boolean checkNoFall = cc.moving.nofallCheck && !player.hasPermission(CheckPermission.MOVE_NOFALL);
 
-        if(checkNoFall && newToLocation == null) {
-            noFallCheck.check(player, data, fromOnGround || fromInGround, toOnGround || toInGround, cc);
+        if(checkNoFall && newToLocation == null && !noFallPerformance.isShed()) {
+            final long start = noFallPerformance.start();
+            noFallCheck.check(player, fromOnGround || fromInGround, toOnGround || toInGround, cc);
+            noFallPerformance.stop(start);
         }
 
         return newToLocation;
@@ -132,23 +155,21 @@ public class RunningCheck {
      * Calculate how much the player failed this check
      * 
      */
-    private double checkHorizontal(final Player player, final BaseData data, final boolean isSwimming, final double totalDistance, final CCMoving ccmoving) {
+    private double checkHorizontal(final NoCheatPlayer player, final BaseData data, final boolean isSwimming, final double totalDistance, final CCMoving ccmoving) {
 
         // How much further did the player move than expected??
         double distanceAboveLimit = 0.0D;
 
-        final boolean sprinting = CheckUtil.isSprinting(player);
+        final boolean sprinting = player.getSnapshot().sprinting;
 
         double limit = 0.0D;
 
-        final EntityPlayer p = ((CraftPlayer) player).getHandle();
-
         final MovingData moving = data.moving;
 
-        if(ccmoving.sneakingCheck && player.isSneaking() && !player.hasPermission(Permissions.MOVE_SNEAK)) {
+        if(ccmoving.sneakingCheck && player.getSnapshot().sneaking && !player.hasPermission(CheckPermission.MOVE_SNEAK)) {
             limit = ccmoving.sneakingSpeedLimit;
             data.log.check = "runfly/sneak";
-        } else if(ccmoving.swimmingCheck && isSwimming && !player.hasPermission(Permissions.MOVE_SWIM)) {
+        } else if(ccmoving.swimmingCheck && isSwimming && !player.hasPermission(CheckPermission.MOVE_SWIM)) {
             limit = ccmoving.swimmingSpeedLimit;
             data.log.check = "runfly/swim";
         } else if(!sprinting) {
@@ -3,34 +3,43 @@ package cc.co.evenprime.bukkit.nocheat.checks.timed;
 import net.minecraft.server.EntityPlayer;
 
 import org.bukkit.craftbukkit.entity.CraftPlayer;
-import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 
 public class TimedCheck {
 
-    private final NoCheat plugin;
+    // Never catch up more ticks than this at once, even if the player wasn't
+    // checked for longer
+    private final static int maxCatchUp = 10;
+
+    private final NoCheat    plugin;
 
     public TimedCheck(NoCheat plugin) {
 
         this.plugin = plugin;
     }
 
-    public void check(Player player, int tickTime, ConfigurationCache cc) {
+    public void check(NoCheatPlayer player, int tickTime, ConfigurationCache cc) {
 
         // server lag(ged), skip this, or player dead, therefore it's reasonable for him to not move :)
-        if(plugin.skipCheck() || player.isDead())
+        if(plugin.skipCheck() || player.getSnapshot().dead)
+            return;
+
+        // Not a real player, e.g. a NPC of another plugin, so there are no
+        // ticks to compare
+        if(!(player.getPlayer() instanceof CraftPlayer))
             return;
 
-        if(cc.timed.godmodeCheck && !player.hasPermission(Permissions.TIMED_GODMODE)) {
+        if(cc.timed.godmodeCheck && !player.hasPermission(CheckPermission.TIMED_GODMODE)) {
 
 
-            BaseData data = plugin.getData(player.getName());
+            BaseData data = player.getData();
             
-            EntityPlayer p = ((CraftPlayer) player).getHandle();
+            EntityPlayer p = ((CraftPlayer) player.getPlayer()).getHandle();
             // Haven't been checking before
             if(data.timed.ticksLived == 0) {
                 // setup data for next time
@@ -85,7 +94,8 @@ public class TimedCheck {
 
             if(cancel) {
                 // Catch up for at least some of the ticks
-                for(int i = 0; i < tickTime; i++) {
+                final int catchUp = Math.min(tickTime, maxCatchUp);
+                for(int i = 0; i < catchUp; i++) {
                     p.a(true); // Catch up with the server, one tick at a time
                 }
             }
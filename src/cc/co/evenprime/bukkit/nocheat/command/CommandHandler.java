@@ -1,5 +1,7 @@
 package cc.co.evenprime.bukkit.nocheat.command;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -12,8 +14,10 @@ import org.bukkit.permissions.Permission;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
 import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.debug.Histogram;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
+import cc.co.evenprime.bukkit.nocheat.debug.TickGovernor;
 
 public class CommandHandler {
 
@@ -39,6 +43,11 @@ public class CommandHandler {
             return handlePerformanceCommand(plugin, sender);
         }
 
+        else if(args[0].equalsIgnoreCase("trace") && args.length >= 2) {
+            // trace command was used
+            return handleTraceCommand(plugin, sender, args);
+        }
+
         return false;
     }
 
@@ -81,8 +90,7 @@ public class CommandHandler {
         }
 
         sender.sendMessage("[NoCheat] Reloading configuration");
-        plugin.reloadConfig();
-        sender.sendMessage("[NoCheat] Configuration reloaded");
+        plugin.reloadConfig(sender);
 
         return true;
     }
@@ -97,22 +105,134 @@ public class CommandHandler {
 
         long totalTime = 0;
 
+        // Types are ordered so that children directly follow their parents
         for(Type type : Type.values()) {
             Performance p = plugin.getPerformance(type);
 
             long total = p.getTotalTime();
-            totalTime += total;
 
-            StringBuilder string = new StringBuilder("").append(type.toString());
+            // Actions are already part of the time of the events that caused
+            // them
+            if(type.getParent() == null && type != Type.ACTIONS) {
+                totalTime += total;
+            }
+
+            StringBuilder string = new StringBuilder("");
+            for(int i = 0; i < type.getDepth(); i++) {
+                string.append("  ");
+            }
+            string.append(type.toString());
             string.append(": total ").append(Performance.toString(total));
+            if(type.getParent() != null) {
+                long parentTotal = plugin.getPerformance(type.getParent()).getTotalTime();
+                if(parentTotal > 0) {
+                    string.append(" (").append(total * 100 / parentTotal).append("%)");
+                }
+            }
             string.append(", relative ").append(Performance.toString(p.getRelativeTime()));
             string.append(" over ").append(p.getCounter()).append(" events.");
+            if(p.getShedCounter() > 0) {
+                string.append(" Skipped ").append(p.getShedCounter()).append(" times to save time.");
+            }
 
             sender.sendMessage(string.toString());
+
+            // Details only for the top level, to keep it readable
+            if(type.getParent() == null) {
+                sendPercentiles(sender, "  last minute", p.getHistogram(1));
+                sendPercentiles(sender, "  last " + Performance.MINUTES + " minutes", p.getHistogram(Performance.MINUTES));
+            }
         }
 
         sender.sendMessage("Total time spent: " + Performance.toString(totalTime));
 
+        // How much load NoCheat can take, to compare with the number of
+        // players
+        final Performance ticks = plugin.getTickPerformance();
+        sendPercentiles(sender, "Time per tick, last minute", ticks.getHistogram(1));
+        sendPercentiles(sender, "Time per tick, last " + Performance.MINUTES + " minutes", ticks.getHistogram(Performance.MINUTES));
+
+        long events = 0;
+        for(Type type : Type.values()) {
+            if(type.getParent() == null && type != Type.ACTIONS) {
+                events += plugin.getPerformance(type).getHistogram(1).getCount();
+            }
+        }
+
+        final Runtime runtime = Runtime.getRuntime();
+        final long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+        final int players = plugin.getServer().getOnlinePlayers().length;
+
+        StringBuilder load = new StringBuilder("Last minute: ");
+        load.append(events / 60).append(" events per second, ");
+        load.append(players).append(" players online, ");
+        load.append(usedMemory / (1024 * 1024)).append(" MB memory used by the server.");
+        sender.sendMessage(load.toString());
+
+        final TickGovernor governor = plugin.getGovernor();
+        if(governor != null && governor.getConfig().active) {
+            StringBuilder string = new StringBuilder("Budget per tick: ");
+            string.append(Performance.toString(governor.getConfig().budget));
+            string.append(", exceeded during ").append(governor.getTicksOverBudget()).append(" ticks");
+            string.append(", at most ").append(governor.getMaxLevel()).append(" checks skipped at once. Skipped now:");
+
+            final Type[] order = governor.getConfig().shedOrder;
+            for(int i = 0; i < governor.getLevel() && i < order.length; i++) {
+                string.append(' ').append(order[i].getName());
+            }
+            if(governor.getLevel() == 0) {
+                string.append(" nothing");
+            }
+
+            sender.sendMessage(string.toString());
+        }
+
         return true;
     }
+
+    private static boolean handleTraceCommand(NoCheat plugin, CommandSender sender, String[] args) {
+        // Does the sender have permission?
+        if(sender instanceof Player && !sender.hasPermission(Permissions.ADMIN_TRACE)) {
+            return false;
+        }
+
+        // Get the player by name
+        Player player = plugin.getServer().getPlayerExact(args[1]);
+        if(player == null) {
+            sender.sendMessage("Unknown player: " + args[1]);
+            return true;
+        }
+
+        try {
+            File file = plugin.toggleTrace(player);
+            if(file != null) {
+                sender.sendMessage("[NoCheat] Recording the movements of " + player.getName() + " to " + file.getPath());
+            } else {
+                sender.sendMessage("[NoCheat] Stopped recording the movements of " + player.getName());
+            }
+        } catch(IOException e) {
+            sender.sendMessage("[NoCheat] Can't record the movements of " + player.getName() + ": " + e.getMessage());
+        }
+
+        return true;
+    }
+
+    private static void sendPercentiles(CommandSender sender, String name, Histogram histogram) {
+
+        final long count = histogram.getCount();
+
+        // Nothing to tell
+        if(count == 0)
+            return;
+
+        StringBuilder string = new StringBuilder(name);
+        string.append(": p50 ").append(Performance.toString(histogram.getPercentile(50)));
+        string.append(", p90 ").append(Performance.toString(histogram.getPercentile(90)));
+        string.append(", p99 ").append(Performance.toString(histogram.getPercentile(99)));
+        string.append(", p99.9 ").append(Performance.toString(histogram.getPercentile(99.9)));
+        string.append(", max ").append(Performance.toString(histogram.getMax()));
+        string.append(" over ").append(count).append(" events.");
+
+        sender.sendMessage(string.toString());
+    }
 }
@@ -0,0 +1,37 @@
+package cc.co.evenprime.bukkit.nocheat.config;
+
+/**
+ * The permission nodes that the checks ask for all the time. Every player's
+ * permissions for these are remembered in a bitset by NoCheatPlayer, one bit
+ * per node.
+ * 
+ */
+public enum CheckPermission {
+
+    MOVE(Permissions.MOVE), MOVE_RUNFLY(Permissions.MOVE_RUNFLY), MOVE_SNEAK(Permissions.MOVE_SNEAK), MOVE_SWIM(Permissions.MOVE_SWIM), MOVE_FLY(Permissions.MOVE_FLY), MOVE_NOFALL(Permissions.MOVE_NOFALL), MOVE_MOREPACKETS(Permissions.MOVE_MOREPACKETS),
+
+    BLOCKBREAK(Permissions.BLOCKBREAK), BLOCKBREAK_REACH(Permissions.BLOCKBREAK_REACH), BLOCKBREAK_DIRECTION(Permissions.BLOCKBREAK_DIRECTION), BLOCKBREAK_NOSWING(Permissions.BLOCKBREAK_NOSWING),
+
+    BLOCKPLACE(Permissions.BLOCKPLACE), BLOCKPLACE_ONLIQUID(Permissions.BLOCKPLACE_ONLIQUID), BLOCKPLACE_REACH(Permissions.BLOCKPLACE_REACH), BLOCKPLACE_NOSWING(Permissions.BLOCKPLACE_NOSWING),
+
+    CHAT(Permissions.CHAT), CHAT_SPAM(Permissions.CHAT_SPAM),
+
+    FIGHT(Permissions.FIGHT), FIGHT_DIRECTION(Permissions.FIGHT_DIRECTION), FIGHT_SELFHIT(Permissions.FIGHT_SELFHIT), FIGHT_NOSWING(Permissions.FIGHT_NOSWING),
+
+    TIMED(Permissions.TIMED), TIMED_GODMODE(Permissions.TIMED_GODMODE);
+
+    // values() creates a new array each time, keep one around
+    private static final CheckPermission[] all = values();
+
+    public final String                    node;
+    public final long                      bit;
+
+    private CheckPermission(String node) {
+        this.node = node;
+        this.bit = 1L << ordinal();
+    }
+
+    public static CheckPermission[] getAll() {
+        return all;
+    }
+}
@@ -27,15 +27,25 @@ public abstract class Configuration {
     public final static OptionNode        LOGGING_FILELEVEL                          = new OptionNode("filelevel", LOGGING, DataType.LOGLEVEL);
     public final static OptionNode        LOGGING_CONSOLELEVEL                       = new OptionNode("consolelevel", LOGGING, DataType.LOGLEVEL);
     public final static OptionNode        LOGGING_CHATLEVEL                          = new OptionNode("chatlevel", LOGGING, DataType.LOGLEVEL);
+    public final static OptionNode        LOGGING_QUEUESIZE                          = new OptionNode("queuesize", LOGGING, DataType.INTEGER);
+    public final static OptionNode        LOGGING_OVERFLOWPOLICY                     = new OptionNode("overflowpolicy", LOGGING, DataType.STRING);
 
     private final static OptionNode       DEBUG                                      = new OptionNode("debug", ROOT, DataType.PARENT);
     public final static OptionNode        DEBUG_SHOWACTIVECHECKS                     = new OptionNode("showactivechecks", DEBUG, DataType.BOOLEAN);
 
+    private final static OptionNode       PERMISSIONS                                = new OptionNode("permissions", ROOT, DataType.PARENT);
+    public final static OptionNode        PERMISSIONS_REFRESHINTERVAL                = new OptionNode("refreshinterval", PERMISSIONS, DataType.INTEGER);
+
+    private final static OptionNode       GOVERNOR                                   = new OptionNode("governor", ROOT, DataType.PARENT);
+    public final static OptionNode        GOVERNOR_ACTIVE                            = new OptionNode("active", GOVERNOR, DataType.BOOLEAN);
+    public final static OptionNode        GOVERNOR_BUDGET                            = new OptionNode("budget", GOVERNOR, DataType.INTEGER);
+    public final static OptionNode        GOVERNOR_SHEDORDER                         = new OptionNode("shedorder", GOVERNOR, DataType.STRING);
+
     private final static OptionNode       MOVING                                     = new OptionNode("moving", ROOT, DataType.PARENT);
     public final static OptionNode        MOVING_CHECK                               = new OptionNode("check", MOVING, DataType.BOOLEAN);
     public final static OptionNode        MOVING_IDENTIFYCREATIVEMODE                = new OptionNode("identifycreativemode", MOVING, DataType.BOOLEAN);
 
-    private final static OptionNode       MOVING_RUNFLY                              = new OptionNode("runfly", MOVING, DataType.PARENT);
+    public final static OptionNode        MOVING_RUNFLY                              = new OptionNode("runfly", MOVING, DataType.PARENT);
     public final static OptionNode        MOVING_RUNFLY_CHECK                        = new OptionNode("check", MOVING_RUNFLY, DataType.BOOLEAN);
     public final static OptionNode        MOVING_RUNFLY_WALKINGSPEEDLIMIT            = new OptionNode("walkingspeedlimit", MOVING_RUNFLY, DataType.INTEGER);
     public final static OptionNode        MOVING_RUNFLY_SPRINTINGSPEEDLIMIT          = new OptionNode("sprintingspeedlimit", MOVING_RUNFLY, DataType.INTEGER);
@@ -53,7 +63,7 @@ public abstract class Configuration {
     public final static OptionNode        MOVING_RUNFLY_FLYINGSPEEDLIMITHORIZONTAL   = new OptionNode("flyingspeedlimithorizontal", MOVING_RUNFLY, DataType.INTEGER);
     public final static OptionNode        MOVING_RUNFLY_FLYINGACTIONS                = new OptionNode("flyingactions", MOVING_RUNFLY, DataType.ACTIONLIST);
 
-    private final static OptionNode       MOVING_MOREPACKETS                         = new OptionNode("morepackets", MOVING, DataType.PARENT);
+    public final static OptionNode        MOVING_MOREPACKETS                         = new OptionNode("morepackets", MOVING, DataType.PARENT);
     public final static OptionNode        MOVING_MOREPACKETS_CHECK                   = new OptionNode("check", MOVING_MOREPACKETS, DataType.BOOLEAN);
     public final static OptionNode        MOVING_MOREPACKETS_ACTIONS                 = new OptionNode("actions", MOVING_MOREPACKETS, DataType.ACTIONLIST);
 
@@ -119,7 +129,7 @@ public abstract class Configuration {
     public static final OptionNode        FIGHT_NOSWING_CHECK                        = new OptionNode("check", FIGHT_NOSWING, DataType.BOOLEAN);
     public static final OptionNode        FIGHT_NOSWING_ACTIONS                      = new OptionNode("actions", FIGHT_NOSWING, DataType.ACTIONLIST);
 
-    private static final OptionNode       TIMED                                      = new OptionNode("timed", ROOT, DataType.PARENT);
+    public static final OptionNode        TIMED                                      = new OptionNode("timed", ROOT, DataType.PARENT);
     public static final OptionNode        TIMED_CHECK                                = new OptionNode("check", TIMED, DataType.BOOLEAN);
 
     private static final OptionNode       TIMED_GODMODE                              = new OptionNode("godmode", TIMED, DataType.PARENT);
@@ -151,6 +161,36 @@ public abstract class Configuration {
         }
     }
 
+    /**
+     * Check if the other configuration has the same values for the node and
+     * everything below it. Action lists are not compared.
+     * 
+     * @param other
+     * @param node
+     * @return
+     */
+    public boolean hasSameValues(Configuration other, OptionNode node) {
+
+        if(node.isLeaf()) {
+            if(node.getType() == DataType.ACTIONLIST) {
+                return true;
+            }
+
+            Object value = getRecursive(node);
+            Object otherValue = other.getRecursive(node);
+
+            return value == null ? otherValue == null : value.equals(otherValue);
+        }
+
+        for(OptionNode child : node.getChildren()) {
+            if(!hasSameValues(other, child)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public boolean getBoolean(OptionNode id) {
         if(id.getType() != DataType.BOOLEAN) {
             throw new IllegalArgumentException(id + " is no boolean value!");
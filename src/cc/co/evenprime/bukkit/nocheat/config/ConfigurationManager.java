@@ -2,21 +2,20 @@ package cc.co.evenprime.bukkit.nocheat.config;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.logging.FileHandler;
-import java.util.logging.Formatter;
-import java.util.logging.Handler;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.Logger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.config.util.ActionMapper;
+import cc.co.evenprime.bukkit.nocheat.log.LogFileWriter;
+import cc.co.evenprime.bukkit.nocheat.log.LogFileWriter.OverflowPolicy;
 
 /**
  * Central location for everything that's described in the configuration file(s)
@@ -28,44 +27,16 @@ public class ConfigurationManager {
     private final static String                   actionFileName            = "actions.txt";
     private final static String                   defaultActionFileName     = "default_actions.txt";
 
-    private final Map<String, ConfigurationCache> worldnameToConfigCacheMap = new HashMap<String, ConfigurationCache>();
+    // Filled once while loading, never changed after that, so it can be
+    // read by any thread
+    private final Map<String, ConfigurationCache> worldnameToConfigCacheMap;
+    private final Map<String, Configuration>      worldnameToConfigMap;
 
-    // Only use one filehandler per file, therefore keep open filehandlers in a
-    // map
-    private final Map<File, FileHandler>          fileToFileHandlerMap      = new HashMap<File, FileHandler>();
+    // Only use one writer per file, therefore keep open writers in a map
+    private final Map<File, LogFileWriter>        fileToFileWriterMap       = new HashMap<File, LogFileWriter>();
 
     private final Configuration                   defaultConfig;
 
-    private static class LogFileFormatter extends Formatter {
-
-        private final SimpleDateFormat date;
-
-        public LogFileFormatter() {
-            date = new SimpleDateFormat("yy.MM.dd HH:mm:ss");
-        }
-
-        @Override
-        public String format(LogRecord record) {
-            StringBuilder builder = new StringBuilder();
-            Throwable ex = record.getThrown();
-
-            builder.append(date.format(record.getMillis()));
-            builder.append(" [");
-            builder.append(record.getLevel().getLocalizedName().toUpperCase());
-            builder.append("] ");
-            builder.append(record.getMessage());
-            builder.append('\n');
-
-            if(ex != null) {
-                StringWriter writer = new StringWriter();
-                ex.printStackTrace(new PrintWriter(writer));
-                builder.append(writer);
-            }
-
-            return builder.toString();
-        }
-    }
-
     // Our personal logger
     // private final static String loggerName = "cc.co.evenprime.nocheat";
     // public final Logger logger = Logger.getLogger(loggerName);
@@ -81,7 +52,11 @@ public class ConfigurationManager {
         defaultConfig = new DefaultConfiguration(actionMapper);
 
         // Setup the real configuration
-        initializeConfig(rootConfigFolder, actionMapper);
+        Map<String, ConfigurationCache> caches = new HashMap<String, ConfigurationCache>();
+        Map<String, Configuration> configs = new HashMap<String, Configuration>();
+        initializeConfig(rootConfigFolder, actionMapper, caches, configs);
+        worldnameToConfigCacheMap = Collections.unmodifiableMap(caches);
+        worldnameToConfigMap = Collections.unmodifiableMap(configs);
 
     }
 
@@ -112,10 +87,10 @@ public class ConfigurationManager {
      * 
      * @param configurationFile
      */
-    private void initializeConfig(String rootConfigFolder, ActionMapper action) {
+    private void initializeConfig(String rootConfigFolder, final ActionMapper action, Map<String, ConfigurationCache> caches, Map<String, Configuration> configs) {
 
         // First try to obtain and parse the global config file
-        FlatFileConfiguration root;
+        final FlatFileConfiguration root;
         File globalConfigFile = getGlobalConfigFile(rootConfigFolder);
 
         root = new FlatFileConfiguration(defaultConfig, true, globalConfigFile);
@@ -136,35 +111,65 @@ public class ConfigurationManager {
 
         // Create a corresponding Configuration Cache
         // put the global config on the config map
-        worldnameToConfigCacheMap.put(null, new ConfigurationCache(root, setupFileLogger(new File(rootConfigFolder, root.getString(DefaultConfiguration.LOGGING_FILENAME)))));
+        configs.put(null, root);
+        caches.put(null, new ConfigurationCache(root, setupFileLogger(new File(rootConfigFolder, root.getString(DefaultConfiguration.LOGGING_FILENAME)), root)));
 
         // Try to find world-specific config files
         Map<String, File> worldFiles = getWorldSpecificConfigFiles(rootConfigFolder);
 
-        for(Entry<String, File> worldEntry : worldFiles.entrySet()) {
+        if(worldFiles.isEmpty()) {
+            return;
+        }
 
-            File worldConfigFile = worldEntry.getValue();
+        // Reading and writing the files of many worlds takes a while, so do
+        // that for several worlds at once
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(worldFiles.size(), Runtime.getRuntime().availableProcessors()));
+        Map<String, Future<FlatFileConfiguration>> worlds = new HashMap<String, Future<FlatFileConfiguration>>();
 
-            FlatFileConfiguration world = new FlatFileConfiguration(root, false, worldConfigFile);
+        try {
+            for(Entry<String, File> worldEntry : worldFiles.entrySet()) {
 
-            try {
-                world.load(action);
+                final File worldConfigFile = worldEntry.getValue();
 
-                worldnameToConfigCacheMap.put(worldEntry.getKey(), createConfigurationCache(rootConfigFolder, world));
+                worlds.put(worldEntry.getKey(), executor.submit(new Callable<FlatFileConfiguration>() {
 
-                // write the config file back to disk immediately
-                world.save();
+                    public FlatFileConfiguration call() throws IOException {
 
-            } catch(IOException e) {
-                System.out.println("NoCheat: Couldn't load world-specific config for " + worldEntry.getKey());
-                e.printStackTrace();
+                        FlatFileConfiguration world = new FlatFileConfiguration(root, false, worldConfigFile);
+
+                        world.load(action);
+
+                        // write the config file back to disk immediately
+                        world.save();
+
+                        return world;
+                    }
+                }));
             }
+
+            for(Entry<String, Future<FlatFileConfiguration>> worldEntry : worlds.entrySet()) {
+                try {
+                    FlatFileConfiguration world = worldEntry.getValue().get();
+
+                    configs.put(worldEntry.getKey(), world);
+                    caches.put(worldEntry.getKey(), createConfigurationCache(rootConfigFolder, world));
+
+                } catch(ExecutionException e) {
+                    System.out.println("NoCheat: Couldn't load world-specific config for " + worldEntry.getKey());
+                    e.getCause().printStackTrace();
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
         }
     }
 
     private ConfigurationCache createConfigurationCache(String rootConfigFolder, Configuration configProvider) {
 
-        return new ConfigurationCache(configProvider, setupFileLogger(new File(rootConfigFolder, configProvider.getString(DefaultConfiguration.LOGGING_FILENAME))));
+        return new ConfigurationCache(configProvider, setupFileLogger(new File(rootConfigFolder, configProvider.getString(DefaultConfiguration.LOGGING_FILENAME)), configProvider));
 
     }
 
@@ -195,60 +200,93 @@ public class ConfigurationManager {
         return files;
     }
 
-    private Logger setupFileLogger(File logfile) {
+    private LogFileWriter setupFileLogger(File logfile, Configuration config) {
+
+        // "nocheat.log" and "./nocheat.log" are the same file and must get
+        // the same writer
+        try {
+            logfile = logfile.getCanonicalFile();
+        } catch(IOException e) {
+            logfile = logfile.getAbsoluteFile();
+        }
 
-        FileHandler fh = fileToFileHandlerMap.get(logfile);
+        LogFileWriter writer = fileToFileWriterMap.get(logfile);
 
-        // this logger will be used ONLY for logging to a single log-file and
-        // only
-        // in this plugin, therefore it doesn't need any namespace
-        Logger l = Logger.getAnonymousLogger();
-        l.setLevel(Level.INFO);
-        // Ignore parent's settings
-        l.setUseParentHandlers(false);
+        // Worlds that log to the same file share the writer. We decide before
+        // logging what gets logged there anyway, because different worlds
+        // may need to log different message levels
+        if(writer == null) {
+
+            OverflowPolicy policy;
+            try {
+                policy = OverflowPolicy.getOverflowPolicyFromString(config.getString(Configuration.LOGGING_OVERFLOWPOLICY));
+            } catch(IllegalArgumentException e) {
+                System.out.println("NoCheat: " + e.getMessage() + ", using " + OverflowPolicy.DROPOLDEST + " instead");
+                policy = OverflowPolicy.DROPOLDEST;
+            }
 
-        if(fh == null) {
             try {
                 try {
                     logfile.getParentFile().mkdirs();
                 } catch(Exception e) {
                     e.printStackTrace();
                 }
-                fh = new FileHandler(logfile.getCanonicalPath(), true);
-                // We decide before logging what gets logged there anyway
-                // because different worlds may use this filehandler and
-                // therefore may need to log different message levels
-                fh.setLevel(Level.ALL);
-                fh.setFormatter(new LogFileFormatter());
-                fileToFileHandlerMap.put(logfile, fh);
-
-                l.addHandler(fh);
+                writer = new LogFileWriter(logfile, config.getInteger(Configuration.LOGGING_QUEUESIZE), policy);
+                fileToFileWriterMap.put(logfile, writer);
 
             } catch(Exception e) {
                 e.printStackTrace();
             }
         }
 
-        return l;
+        return writer;
+    }
+
+    /**
+     * Open the logfiles and start writing to them. Messages logged before
+     * wait in the queues. Call this only after the logfiles of the previous
+     * configuration got closed by "cleanup", otherwise both would write to
+     * the same file at the same time.
+     */
+    public void startLogging() {
+
+        for(LogFileWriter writer : fileToFileWriterMap.values()) {
+            try {
+                writer.start();
+            } catch(Exception e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     /**
-     * Reset the loggers and flush and close the fileHandlers
+     * Write everything that's still waiting to the logfiles and close them
      * to be able to use them next time without problems
      */
     public void cleanup() {
 
-        // Remove handlers from the logger
-        for(ConfigurationCache c : worldnameToConfigCacheMap.values()) {
-            for(Handler h : c.logging.filelogger.getHandlers()) {
-                c.logging.filelogger.removeHandler(h);
-            }
+        for(LogFileWriter writer : fileToFileWriterMap.values()) {
+            writer.close();
         }
 
-        // Close all file handlers
-        for(FileHandler fh : fileToFileHandlerMap.values()) {
-            fh.flush();
-            fh.close();
+        fileToFileWriterMap.clear();
+    }
+
+    /**
+     * Get the configuration of the specified world, or the global
+     * configuration, if the world has none of its own.
+     * 
+     * @param worldname
+     * @return
+     */
+    public Configuration getConfigurationForWorld(String worldname) {
+
+        Configuration config = worldnameToConfigMap.get(worldname);
+
+        if(config != null) {
+            return config;
+        } else {
+            return worldnameToConfigMap.get(null);
         }
     }
 
@@ -266,12 +304,9 @@ public class ConfigurationManager {
         if(cache != null) {
             return cache;
         } else {
-            // Enter a reference to the cache under the new name
-            // to be faster in looking it up later
-            cache = worldnameToConfigCacheMap.get(null);
-            worldnameToConfigCacheMap.put(worldname, cache);
-
-            return cache;
+            // Players remember the result, so no need to enter it
+            // into the map under the new name
+            return worldnameToConfigCacheMap.get(null);
         }
     }
 }
@@ -27,6 +27,8 @@ public class DefaultConfiguration extends Configuration {
             setValue(LOGGING_FILELEVEL, LogLevel.LOW);
             setValue(LOGGING_CONSOLELEVEL, LogLevel.HIGH);
             setValue(LOGGING_CHATLEVEL, LogLevel.MED);
+            setValue(LOGGING_QUEUESIZE, 1000);
+            setValue(LOGGING_OVERFLOWPOLICY, "dropoldest");
         }
 
         /*** DEBUG ***/
@@ -34,6 +36,18 @@ public class DefaultConfiguration extends Configuration {
             setValue(DEBUG_SHOWACTIVECHECKS, false);
         }
 
+        /*** PERMISSIONS ***/
+        {
+            setValue(PERMISSIONS_REFRESHINTERVAL, 10);
+        }
+
+        /*** GOVERNOR ***/
+        {
+            setValue(GOVERNOR_ACTIVE, false);
+            setValue(GOVERNOR_BUDGET, 5000);
+            setValue(GOVERNOR_SHEDORDER, "fight.direction blockbreak.direction blockplace.reach blockbreak.reach");
+        }
+
         /*** MOVING ***/
         {
             setValue(MOVING_CHECK, true);
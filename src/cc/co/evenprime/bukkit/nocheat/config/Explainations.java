@@ -23,9 +23,17 @@ public class Explainations {
         set(Configuration.LOGGING_FILELEVEL, "What log-level need messages to have to get stored in the logfile. Values are:\n low: all messages\n med: med and high messages only\n high: high messages only\n off: no messages at all.");
         set(Configuration.LOGGING_CONSOLELEVEL, "What log-level need messages to have to get displayed in your server console. Values are:\n low: all messages\n med: med and high messages only\n high: high messages only\n off: no messages at all.");
         set(Configuration.LOGGING_CHATLEVEL, "What log-level need messages to have to get displayed in the ingame chat. Values are:\n low: all messages\n med: med and high messages only\n high: high messages only\n off: no messages at all.");
+        set(Configuration.LOGGING_QUEUESIZE, "How many messages may wait to be written to the logfile. Writing happens in the background, so\n the server doesn't have to wait for the disk.");
+        set(Configuration.LOGGING_OVERFLOWPOLICY, "What to do with messages for the logfile if more are waiting than 'queuesize'. Values are:\n dropoldest: forget the oldest waiting message\n droplowest: forget the waiting message with the lowest log-level\n block: wait until there is room again. The main server thread never waits, it forgets the oldest waiting message instead.");
 
         set(Configuration.DEBUG_SHOWACTIVECHECKS, "Print to the console an overview of all checks that are enabled when NoCheat gets loaded.");
 
+        set(Configuration.PERMISSIONS_REFRESHINTERVAL, "How many seconds NoCheat remembers the permissions of a player before asking for them again. They\n also get asked for again after a player changed the world. Only the value in config.txt is used.");
+
+        set(Configuration.GOVERNOR_ACTIVE, "If true, NoCheat watches how much time it needs during each server tick and skips some of its checks\n while it needs more than 'budget'. Only the value in config.txt is used.");
+        set(Configuration.GOVERNOR_BUDGET, "How many microseconds NoCheat may spend per server tick (a tick has 50000) before it starts to skip checks.");
+        set(Configuration.GOVERNOR_SHEDORDER, "Which checks get skipped first, separated by spaces. The more NoCheat is above its budget, the more\n checks of this list get skipped, starting with the first one. Possible names are:\n blockbreak.noswing, blockbreak.reach, blockbreak.direction, blockplace.noswing, blockplace.reach,\n blockplace.onliquid, moving.running, moving.nofall, moving.flying, moving.morepackets, fight.noswing,\n fight.direction, fight.selfhit.\n Skipping moving checks lets players fly and speed while the server is busy, so they aren't in the\n list by default.");
+
         set(Configuration.MOVING_CHECK, "If true, do various checks on PlayerMove events.");
         set(Configuration.MOVING_IDENTIFYCREATIVEMODE, "If true, NoCheat will automatically identify if players are in creative mode and will allow them to fly, avoid fall damage etc.");
 
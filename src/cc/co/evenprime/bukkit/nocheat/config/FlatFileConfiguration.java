@@ -4,19 +4,34 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
 
 import cc.co.evenprime.bukkit.nocheat.actions.types.Action;
 import cc.co.evenprime.bukkit.nocheat.config.util.ActionList;
 import cc.co.evenprime.bukkit.nocheat.config.util.ActionMapper;
 import cc.co.evenprime.bukkit.nocheat.config.util.OptionNode;
+import cc.co.evenprime.bukkit.nocheat.config.util.OptionNode.DataType;
 import cc.co.evenprime.bukkit.nocheat.log.LogLevel;
 
 public class FlatFileConfiguration extends Configuration {
 
-    private final File file;
+    // The full name of every option (e.g. "moving.runfly.check") and the
+    // option itself, both ways, to not have to search for them
+    private final static Map<String, OptionNode> nameToNode = new HashMap<String, OptionNode>();
+    private final static Map<OptionNode, String> nodeToName = new HashMap<OptionNode, String>();
+
+    static {
+        indexNodes(ROOT, null);
+    }
+
+    private final File                           file;
 
     public FlatFileConfiguration(Configuration defaults, boolean copyDefaults, File file) {
         super(defaults, copyDefaults);
@@ -24,6 +39,21 @@ public class FlatFileConfiguration extends Configuration {
         this.file = file;
     }
 
+    private static void indexNodes(OptionNode node, String parentName) {
+
+        for(OptionNode child : node.getChildren()) {
+
+            String name = parentName == null ? child.getName() : parentName + "." + child.getName();
+
+            if(child.isLeaf()) {
+                nameToNode.put(name, child);
+                nodeToName.put(child, name);
+            } else {
+                indexNodes(child, name);
+            }
+        }
+    }
+
     public void load(ActionMapper action) throws IOException {
 
         BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
@@ -42,18 +72,18 @@ public class FlatFileConfiguration extends Configuration {
 
         line = line.trim();
 
+        final int separator = line.indexOf('=');
+
         // Is it a key/value pair?
-        if(line.startsWith("#") || !line.contains("=")) {
+        if(line.startsWith("#") || separator < 0) {
             return;
         }
 
-        String pair[] = line.split("=", 2);
-
-        String key = pair[0].trim();
-        String value = pair[1].trim();
+        String key = line.substring(0, separator).trim();
+        String value = line.substring(separator + 1).trim();
 
         // Find out which option we have in front of us
-        OptionNode node = getOptionNodeForString(ROOT, key);
+        OptionNode node = getOptionNodeForString(key);
 
         if(node == null) {
             return;
@@ -82,8 +112,7 @@ public class FlatFileConfiguration extends Configuration {
 
     private ActionList parseActionList(OptionNode node, String key, String value, ActionMapper action) {
 
-        String[] s = key.split("\\.");
-        String treshold = s[s.length - 1];
+        String treshold = key.substring(key.lastIndexOf('.') + 1);
 
         // See if we already got that actionlist created
         ActionList al = (ActionList) this.get(node);
@@ -97,31 +126,34 @@ public class FlatFileConfiguration extends Configuration {
         return al;
     }
 
-    private OptionNode getOptionNodeForString(OptionNode root, String key) {
-        String parts[] = key.split("\\.", 2);
+    private OptionNode getOptionNodeForString(String key) {
+
+        OptionNode node = nameToNode.get(key);
 
-        for(OptionNode node : root.getChildren()) {
-            // Found the correct node?
-            if(node.getName().equals(parts[0])) {
-                if(node.isLeaf()) {
-                    return node;
-                } else {
-                    return getOptionNodeForString(node, parts[1]);
+        if(node == null) {
+            // Action lists have the treshold at the end of their name
+            final int lastDot = key.lastIndexOf('.');
+
+            if(lastDot > 0) {
+                node = nameToNode.get(key.substring(0, lastDot));
+                if(node != null && node.getType() != DataType.ACTIONLIST) {
+                    node = null;
                 }
             }
         }
 
-        return null;
+        return node;
     }
 
+    /**
+     * Write the configuration to its file, but only if that would change
+     * the content of the file
+     */
     public void save() {
 
         try {
-            if(file.getParentFile() != null)
-                file.getParentFile().mkdirs();
-
-            file.createNewFile();
-            BufferedWriter w = new BufferedWriter(new FileWriter(file));
+            StringWriter content = new StringWriter(8 * 1024);
+            BufferedWriter w = new BufferedWriter(content);
 
             w.write("# Want to know what these options do? Read at the end of this file.\r\n");
 
@@ -132,12 +164,51 @@ public class FlatFileConfiguration extends Configuration {
             saveDescriptionsRecursive(w, ROOT);
 
             w.flush();
-            w.close();
+
+            final String newContent = content.toString();
+
+            if(newContent.equals(readFile())) {
+                return;
+            }
+
+            if(file.getParentFile() != null)
+                file.getParentFile().mkdirs();
+
+            Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            out.write(newContent);
+            out.close();
         } catch(IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Get the current content of the file, or null if there is none
+     */
+    private String readFile() {
+
+        if(!file.isFile()) {
+            return null;
+        }
+
+        try {
+            InputStreamReader r = new InputStreamReader(new FileInputStream(file), "UTF-8");
+            StringBuilder content = new StringBuilder((int) file.length());
+            char[] buffer = new char[4096];
+            int length;
+
+            while((length = r.read(buffer)) != -1) {
+                content.append(buffer, 0, length);
+            }
+
+            r.close();
+
+            return content.toString();
+        } catch(IOException e) {
+            return null;
+        }
+    }
+
     private void saveDescriptionsRecursive(BufferedWriter w, OptionNode node) throws IOException {
         if(!node.isLeaf()) {
             for(OptionNode o : node.getChildren()) {
@@ -153,12 +224,7 @@ public class FlatFileConfiguration extends Configuration {
         }
 
         // Get the full id of the node
-        String id = node.getName();
-        OptionNode i = node;
-
-        while((i = i.getParent()) != null && i.getName() != null && i.getName().length() > 0) {
-            id = i.getName() + "." + id;
-        }
+        String id = nodeToName.get(node);
 
         w.write("\r\n\r\n# " + id + ":\r\n#\r\n");
 
@@ -195,12 +261,7 @@ public class FlatFileConfiguration extends Configuration {
             return;
         }
         // Get the full id of the node
-        String id = node.getName();
-        OptionNode i = node;
-
-        while((i = i.getParent()) != null && i.getName() != null && i.getName().length() > 0) {
-            id = i.getName() + "." + id;
-        }
+        String id = nodeToName.get(node);
 
         switch (node.getType()) {
         case ACTIONLIST:
@@ -224,7 +285,7 @@ public class FlatFileConfiguration extends Configuration {
     }
 
     private void saveActionList(BufferedWriter w, String id, ActionList actionList) throws IOException {
-        for(Integer treshold : actionList.getTresholds()) {
+        for(int treshold : actionList.getTresholds()) {
             StringBuilder s = new StringBuilder("");
             for(Action s2 : actionList.getActions(treshold)) {
                 s.append(" ").append(s2.name);
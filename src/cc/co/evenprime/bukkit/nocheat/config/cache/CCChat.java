@@ -5,12 +5,13 @@ import java.util.List;
 
 import cc.co.evenprime.bukkit.nocheat.config.Configuration;
 import cc.co.evenprime.bukkit.nocheat.config.util.ActionList;
+import cc.co.evenprime.bukkit.nocheat.config.util.PrefixSet;
 
 public class CCChat {
 
     public final boolean    check;
     public final boolean    spamCheck;
-    public final String[]   spamWhitelist;
+    public final PrefixSet  spamWhitelist;
     public final int        spamTimeframe;
     public final int        spamLimit;
     public final ActionList spamActions;
@@ -19,7 +20,7 @@ public class CCChat {
 
         check = data.getBoolean(Configuration.CHAT_CHECK);
         spamCheck = data.getBoolean(Configuration.CHAT_SPAM_CHECK);
-        spamWhitelist = splitWhitelist(data.getString(Configuration.CHAT_SPAM_WHITELIST));
+        spamWhitelist = new PrefixSet(splitWhitelist(data.getString(Configuration.CHAT_SPAM_WHITELIST)));
         spamTimeframe = data.getInteger(Configuration.CHAT_SPAM_TIMEFRAME);
         spamLimit = data.getInteger(Configuration.CHAT_SPAM_LIMIT);
         spamActions = data.getActionList(Configuration.CHAT_SPAM_ACTIONS);
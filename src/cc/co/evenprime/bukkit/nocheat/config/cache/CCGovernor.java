@@ -0,0 +1,32 @@
+package cc.co.evenprime.bukkit.nocheat.config.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cc.co.evenprime.bukkit.nocheat.config.Configuration;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
+
+public class CCGovernor {
+
+    public final boolean active;
+    // In nanoseconds
+    public final long    budget;
+    // Checks in the order they get skipped, unknown names, whole events and
+    // actions are left out
+    public final Type[]  shedOrder;
+
+    public CCGovernor(Configuration data) {
+
+        active = data.getBoolean(Configuration.GOVERNOR_ACTIVE);
+        budget = data.getInteger(Configuration.GOVERNOR_BUDGET) * 1000L;
+
+        List<Type> types = new ArrayList<Type>();
+        for(String name : data.getString(Configuration.GOVERNOR_SHEDORDER).split(" ")) {
+            Type type = Type.getTypeByName(name.trim());
+            if(type != null && type.getParent() != null && type.getParent() != Type.ACTIONS && !types.contains(type)) {
+                types.add(type);
+            }
+        }
+        shedOrder = types.toArray(new Type[types.size()]);
+    }
+}
@@ -1,9 +1,8 @@
 package cc.co.evenprime.bukkit.nocheat.config.cache;
 
-import java.util.logging.Logger;
-
 import cc.co.evenprime.bukkit.nocheat.config.Configuration;
 import cc.co.evenprime.bukkit.nocheat.log.Colors;
+import cc.co.evenprime.bukkit.nocheat.log.LogFileWriter;
 import cc.co.evenprime.bukkit.nocheat.log.LogLevel;
 
 /**
@@ -12,14 +11,14 @@ import cc.co.evenprime.bukkit.nocheat.log.LogLevel;
  */
 public class CCLogging {
 
-    public final LogLevel fileLevel;
-    public final LogLevel consoleLevel;
-    public final LogLevel chatLevel;
-    public final Logger   filelogger;
-    public final boolean  active;
-    public final String   prefix;
+    public final LogLevel      fileLevel;
+    public final LogLevel      consoleLevel;
+    public final LogLevel      chatLevel;
+    public final LogFileWriter filelogger;
+    public final boolean       active;
+    public final String        prefix;
 
-    public CCLogging(Configuration data, Logger worldSpecificFileLogger) {
+    public CCLogging(Configuration data, LogFileWriter worldSpecificFileLogger) {
 
         active = data.getBoolean(Configuration.LOGGING_ACTIVE);
         prefix = Colors.replaceColors(data.getString(Configuration.LOGGING_PREFIX));
@@ -0,0 +1,14 @@
+package cc.co.evenprime.bukkit.nocheat.config.cache;
+
+import cc.co.evenprime.bukkit.nocheat.config.Configuration;
+
+public class CCPermissions {
+
+    // In milliseconds
+    public final long refreshInterval;
+
+    public CCPermissions(Configuration data) {
+
+        refreshInterval = data.getInteger(Configuration.PERMISSIONS_REFRESHINTERVAL) * 1000L;
+    }
+}
@@ -1,8 +1,7 @@
 package cc.co.evenprime.bukkit.nocheat.config.cache;
 
-import java.util.logging.Logger;
-
 import cc.co.evenprime.bukkit.nocheat.config.Configuration;
+import cc.co.evenprime.bukkit.nocheat.log.LogFileWriter;
 
 /**
  * A class to keep all configurables of the plugin associated with
@@ -11,14 +10,16 @@ import cc.co.evenprime.bukkit.nocheat.config.Configuration;
  */
 public class ConfigurationCache {
 
-    public final CCMoving     moving;
-    public final CCLogging    logging;
-    public final CCBlockBreak blockbreak;
-    public final CCBlockPlace blockplace;
-    public final CCChat       chat;
-    public final CCDebug      debug;
-    public final CCFight      fight;
-    public final CCTimed      timed;
+    public final CCMoving      moving;
+    public final CCLogging     logging;
+    public final CCBlockBreak  blockbreak;
+    public final CCBlockPlace  blockplace;
+    public final CCChat        chat;
+    public final CCDebug       debug;
+    public final CCFight       fight;
+    public final CCTimed       timed;
+    public final CCPermissions permissions;
+    public final CCGovernor    governor;
 
     /**
      * Instantiate a config cache and populate it with the data of a
@@ -26,7 +27,7 @@ public class ConfigurationCache {
      * 
      * @param data
      */
-    public ConfigurationCache(Configuration data, Logger worldSpecificFileLogger) {
+    public ConfigurationCache(Configuration data, LogFileWriter worldSpecificFileLogger) {
 
         moving = new CCMoving(data);
         blockbreak = new CCBlockBreak(data);
@@ -36,6 +37,8 @@ public class ConfigurationCache {
         debug = new CCDebug(data);
         fight = new CCFight(data);
         timed = new CCTimed(data);
+        permissions = new CCPermissions(data);
+        governor = new CCGovernor(data);
 
     }
 }
@@ -1,10 +1,6 @@
 package cc.co.evenprime.bukkit.nocheat.config.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 import cc.co.evenprime.bukkit.nocheat.actions.types.Action;
 
@@ -17,10 +13,11 @@ public class ActionList {
 
     public ActionList() {}
 
-    private final static Action[]        emptyArray = new Action[0];
+    private final static Action[] emptyArray = new Action[0];
 
-    private final Map<Integer, Action[]> actions    = new HashMap<Integer, Action[]>();
-    private final List<Integer>          tresholds  = new ArrayList<Integer>();
+    // Sorted tresholds and the actions that belong to them, at the same index
+    private int[]                 tresholds  = new int[0];
+    private Action[][]            actions    = new Action[0][];
 
     /**
      * Add an entry to this actionList. The list will be sorted by tresholds
@@ -29,14 +26,29 @@ public class ActionList {
      * @param treshold
      * @param actionNames
      */
-    public void setActions(Integer treshold, Action[] actions) {
+    public void setActions(int treshold, Action[] actions) {
 
-        if(!this.tresholds.contains(treshold)) {
-            this.tresholds.add(treshold);
-            Collections.sort(this.tresholds);
+        int index = Arrays.binarySearch(this.tresholds, treshold);
+
+        if(index < 0) {
+            // Make room for the new treshold at the right place
+            index = -index - 1;
+
+            final int[] newTresholds = new int[this.tresholds.length + 1];
+            final Action[][] newActions = new Action[this.actions.length + 1][];
+
+            System.arraycopy(this.tresholds, 0, newTresholds, 0, index);
+            System.arraycopy(this.tresholds, index, newTresholds, index + 1, this.tresholds.length - index);
+            System.arraycopy(this.actions, 0, newActions, 0, index);
+            System.arraycopy(this.actions, index, newActions, index + 1, this.actions.length - index);
+
+            newTresholds[index] = treshold;
+
+            this.tresholds = newTresholds;
+            this.actions = newActions;
         }
 
-        this.actions.put(treshold, actions);
+        this.actions[index] = actions;
     }
 
     /**
@@ -49,21 +61,20 @@ public class ActionList {
      */
     public Action[] getActions(int vl) {
 
-        Integer result = null;
+        int index = Arrays.binarySearch(tresholds, vl);
 
-        for(Integer treshold : tresholds) {
-            if(treshold <= vl) {
-                result = treshold;
-            }
+        // Not an exact match, use the next smaller treshold
+        if(index < 0) {
+            index = -index - 2;
         }
 
-        if(result != null)
-            return actions.get(result);
+        if(index >= 0)
+            return actions[index];
         else
             return emptyArray;
     }
 
-    public List<Integer> getTresholds() {
-        return tresholds;
+    public int[] getTresholds() {
+        return Arrays.copyOf(tresholds, tresholds.length);
     }
 }
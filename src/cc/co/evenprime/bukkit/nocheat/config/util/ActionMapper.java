@@ -16,9 +16,21 @@ public class ActionMapper {
         this.actions = new HashMap<String, Action>();
     }
 
+    /**
+     * Add an action and give it an id. Actions get numbered 0, 1, 2, ...
+     * An action that replaces another one with the same name gets its id.
+     * 
+     * @param action
+     */
     public void addAction(Action action) {
 
-        this.actions.put(action.name.toLowerCase(), action);
+        Action previous = this.actions.put(action.name.toLowerCase(), action);
+
+        if(previous != null) {
+            action.setId(previous.getId());
+        } else {
+            action.setId(this.actions.size() - 1);
+        }
     }
 
     public Action[] getActions(String[] actionNames) {
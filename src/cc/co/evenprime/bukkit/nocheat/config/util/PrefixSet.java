@@ -0,0 +1,94 @@
+package cc.co.evenprime.bukkit.nocheat.config.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of strings that can quickly tell if one of them is the start of
+ * another string. The strings are stored as a tree of characters (a "trie"),
+ * so finding a match takes as long as the other string is, no matter how many
+ * strings are in the set. Meant to be built once when the configuration gets
+ * loaded and only read afterwards.
+ *
+ */
+public final class PrefixSet {
+
+    private static final class Node {
+
+        // Sorted, to find the next character by binary search
+        private char[]  chars    = new char[0];
+        private Node[]  children = new Node[0];
+        // A string of the set ends here
+        private boolean end;
+
+        private Node child(char c) {
+            final int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char c) {
+
+            int i = Arrays.binarySearch(chars, c);
+
+            if(i >= 0)
+                return children[i];
+
+            i = -i - 1;
+
+            final char[] newChars = new char[chars.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+
+            System.arraycopy(chars, 0, newChars, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newChars[i] = c;
+            newChildren[i] = new Node();
+            System.arraycopy(chars, i, newChars, i + 1, chars.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+
+            chars = newChars;
+            children = newChildren;
+
+            return newChildren[i];
+        }
+    }
+
+    private final Node root = new Node();
+
+    public PrefixSet(String[] strings) {
+        for(String s : strings) {
+            add(s);
+        }
+    }
+
+    private void add(String s) {
+
+        Node node = root;
+
+        for(int i = 0; i < s.length(); i++) {
+            node = node.addChild(s.charAt(i));
+        }
+
+        node.end = true;
+    }
+
+    /**
+     * Does "message" start with one of the strings of this set?
+     */
+    public boolean isPrefixOf(String message) {
+
+        Node node = root;
+
+        if(node.end)
+            return true;
+
+        for(int i = 0; i < message.length(); i++) {
+            node = node.child(message.charAt(i));
+
+            if(node == null)
+                return false;
+            if(node.end)
+                return true;
+        }
+
+        return false;
+    }
+}
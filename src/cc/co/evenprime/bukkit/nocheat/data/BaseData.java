@@ -10,9 +10,12 @@ public class BaseData extends Data {
     public final FightData      fight;
     public final TimedData      timed;
 
+    // Read from the player at most once per tick
+    public final PlayerSnapshot snapshot = new PlayerSnapshot();
+
     private final Data[]        data;        // for convenience
 
-    public long                 lastUsedTime;
+    public volatile long        lastUsedTime;
 
     public boolean              armswung;    // This technically does belong to
                                               // many other checks, so I'll put
@@ -35,6 +38,7 @@ public class BaseData extends Data {
         for(Data d : data) {
             d.clearCriticalData();
         }
+        snapshot.invalidate();
     }
 
     public boolean shouldBeRemoved(long currentTimeInMilliseconds) {
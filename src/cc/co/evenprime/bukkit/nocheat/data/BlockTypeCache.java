@@ -0,0 +1,148 @@
+package cc.co.evenprime.bukkit.nocheat.data;
+
+import java.util.Arrays;
+
+import org.bukkit.World;
+
+/**
+ * A small per-player cache of block type ids around the player, so that
+ * consecutive move events in the same area don't ask the world for the same
+ * blocks again and again. Blocks are stored in a few sections of 8x8x8 blocks
+ * and only read from the world the first time they are needed.
+ *
+ * The cached ids of a chunk become invalid when a block in that chunk changes
+ * (see "blockChanged") and all cached ids become invalid regularly (see
+ * "expireAll"), to catch changes NoCheat doesn't get events for.
+ *
+ */
+public final class BlockTypeCache {
+
+    // A section is a cube of 8x8x8 blocks, so it always lies within a single
+    // chunk
+    private final static int   SHIFT        = 3;
+    private final static int   MASK         = (1 << SHIFT) - 1;
+    private final static int   SECTIONSIZE  = 1 << (3 * SHIFT);
+    // Enough to hold all sections a hitbox can touch at once
+    private final static int   SECTIONS     = 8;
+
+    // One modification counter per chunk, indexed by the lower 6 bits of the
+    // chunk coordinates. Collisions only cause unnecessary invalidations.
+    // Only modified from the main thread.
+    private final static int   CHUNKBITS    = 6;
+    private final static int   CHUNKMASK    = (1 << CHUNKBITS) - 1;
+    private final static int[] chunkStamps  = new int[1 << (2 * CHUNKBITS)];
+    private static volatile int epoch;
+
+    private final World[]      worlds       = new World[SECTIONS];
+    private final int[]        sectionX     = new int[SECTIONS];
+    private final int[]        sectionY     = new int[SECTIONS];
+    private final int[]        sectionZ     = new int[SECTIONS];
+    private final int[]        sectionStamp = new int[SECTIONS];
+    private final int[]        sectionEpoch = new int[SECTIONS];
+    // Type id + 1 of each block, 0 means "not read yet"
+    private final short[][]    ids          = new short[SECTIONS][SECTIONSIZE];
+
+    private int                lastSection;
+    private int                nextSection;
+
+    /**
+     * Get the type id of a block, like "world.getBlockTypeIdAt" does
+     */
+    public final int getTypeId(final World world, final int x, final int y, final int z) {
+
+        final short[] section = ids[findSection(world, x >> SHIFT, y >> SHIFT, z >> SHIFT)];
+        final int index = ((x & MASK) << (2 * SHIFT)) | ((y & MASK) << SHIFT) | (z & MASK);
+
+        int id = section[index];
+
+        if(id == 0) {
+            id = world.getBlockTypeIdAt(x, y, z) + 1;
+            section[index] = (short) id;
+        }
+
+        return id - 1;
+    }
+
+    /**
+     * Forget everything, e.g. because the player got teleported
+     */
+    public final void reset() {
+        for(int i = 0; i < SECTIONS; i++) {
+            worlds[i] = null;
+        }
+    }
+
+    private final int findSection(final World world, final int x, final int y, final int z) {
+
+        final int stamp = chunkStamps[chunkIndex(x >> (4 - SHIFT), z >> (4 - SHIFT))];
+        final int currentEpoch = epoch;
+
+        // Most of the time it's the same section as last time
+        int i = lastSection;
+
+        if(!(worlds[i] == world && sectionX[i] == x && sectionY[i] == y && sectionZ[i] == z)) {
+            for(i = 0; i < SECTIONS; i++) {
+                if(worlds[i] == world && sectionX[i] == x && sectionY[i] == y && sectionZ[i] == z) {
+                    break;
+                }
+            }
+
+            if(i == SECTIONS) {
+                // Not cached at all, replace the oldest section
+                i = nextSection;
+                nextSection = (nextSection + 1) % SECTIONS;
+
+                worlds[i] = world;
+                sectionX[i] = x;
+                sectionY[i] = y;
+                sectionZ[i] = z;
+                sectionEpoch[i] = currentEpoch - 1;
+            }
+
+            lastSection = i;
+        }
+
+        if(sectionStamp[i] != stamp || sectionEpoch[i] != currentEpoch) {
+            // Something may have changed since the section was read
+            Arrays.fill(ids[i], (short) 0);
+            sectionStamp[i] = stamp;
+            sectionEpoch[i] = currentEpoch;
+        }
+
+        return i;
+    }
+
+    private static final int chunkIndex(final int chunkX, final int chunkZ) {
+        return ((chunkX & CHUNKMASK) << CHUNKBITS) | (chunkZ & CHUNKMASK);
+    }
+
+    /**
+     * A number that changes whenever blocks at the given coordinates or next
+     * to them (horizontally) may have changed
+     */
+    public static final int getStamp(final int x, final int z) {
+
+        final int lowerX = (x - 1) >> 4;
+        final int upperX = (x + 1) >> 4;
+        final int lowerZ = (z - 1) >> 4;
+        final int upperZ = (z + 1) >> 4;
+
+        // All counters only ever increase, so the sum does too
+        return epoch + chunkStamps[chunkIndex(lowerX, lowerZ)] + chunkStamps[chunkIndex(lowerX, upperZ)] + chunkStamps[chunkIndex(upperX, lowerZ)] + chunkStamps[chunkIndex(upperX, upperZ)];
+    }
+
+    /**
+     * A block at the given coordinates changed, so all cached ids of the chunk
+     * it belongs to have to be read again. Only call from the main thread.
+     */
+    public static final void blockChanged(final int x, final int z) {
+        chunkStamps[chunkIndex(x >> 4, z >> 4)]++;
+    }
+
+    /**
+     * All cached ids have to be read again
+     */
+    public static final void expireAll() {
+        epoch++;
+    }
+}
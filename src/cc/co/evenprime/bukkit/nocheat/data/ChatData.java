@@ -1,12 +1,17 @@
 package cc.co.evenprime.bukkit.nocheat.data;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * 
+ * Chat may get checked by other threads than the main thread, so the counters
+ * are atomic
  */
 public class ChatData extends Data {
 
-    public int                    messageCount = 0;
-    public int                    spamLasttime = 0;
-    public final ExecutionHistory history      = new ExecutionHistory();
+    // When the current timeframe started (upper 32 bits) and how many
+    // messages were sent since then (lower 32 bits), together so that both
+    // can be changed at once
+    public final AtomicLong       spamCounter   = new AtomicLong();
+    public final ExecutionHistory history       = new ExecutionHistory();
 
 }
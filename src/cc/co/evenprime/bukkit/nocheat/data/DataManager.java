@@ -1,10 +1,15 @@
 package cc.co.evenprime.bukkit.nocheat.data;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bukkit.entity.Player;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.config.Configuration;
+import cc.co.evenprime.bukkit.nocheat.config.ConfigurationManager;
 
 /**
  * Provide secure access to player-specific data objects for various checks or
@@ -12,13 +17,29 @@ import java.util.Map.Entry;
  */
 public class DataManager {
 
+    // How many entries get looked at per call of cleanDataMap at least
+    private final static int                          minimumCleanupSteps = 10;
+    // How many calls of cleanDataMap it should take at most to walk the
+    // whole map once
+    private final static int                          cleanupCycleLength  = 30;
+
     // Store data between Events
-    private final Map<String, BaseData> map;
-    private final List<String>          removals;
+    private final ConcurrentMap<String, BaseData>      map;
+
+    // Handles of the players that are currently online
+    private final ConcurrentMap<String, NoCheatPlayer> players;
+
+    // Where the last call of cleanDataMap stopped walking the map
+    private Iterator<Entry<String, BaseData>>          cleanupIterator;
+
+    // A coarse clock, so that looking up data doesn't need to ask the system
+    // for the current time every single time
+    private volatile long                              currentTime;
 
     public DataManager() {
-        this.map = new HashMap<String, BaseData>();
-        this.removals = new ArrayList<String>(5);
+        this.map = new ConcurrentHashMap<String, BaseData>();
+        this.players = new ConcurrentHashMap<String, NoCheatPlayer>();
+        this.currentTime = System.currentTimeMillis();
     }
 
     /**
@@ -29,25 +50,156 @@ public class DataManager {
 
         BaseData data = this.map.get(playerName);
 
-        // intentionally not thread-safe, because bukkit events are handled
-        // in sequence anyway, so zero chance of two events of the same
-        // player being handled at the same time
-        // And if it still happens by accident, it's no real loss anyway, as
-        // losing data of one instance doesn't really hurt at all
+        // Safe to be called from any thread, if two threads create data for
+        // the same player at the same time, only one of them wins and both
+        // get the same object
         if(data == null) {
-            data = new BaseData();
-            data.log.playerName = playerName;
-            this.map.put(playerName, data);
+            BaseData newData = new BaseData();
+            newData.log.playerName = playerName;
+
+            data = this.map.putIfAbsent(playerName, newData);
+            if(data == null) {
+                data = newData;
+            }
         }
 
-        data.lastUsedTime = System.currentTimeMillis();
+        data.lastUsedTime = currentTime;
 
         return data;
     }
 
+    /**
+     * Get the handle of a player. Usually that handle was created when the
+     * player joined, but if NoCheat got (re)loaded while the player was
+     * already online or the player object changed, it will be created now.
+     * The data of the player is kept either way.
+     */
+    public NoCheatPlayer getPlayer(Player player) {
+
+        NoCheatPlayer p = this.players.get(player.getName());
+
+        if(p == null || p.getPlayer() != player) {
+            p = createHandle(player);
+        } else {
+            p.getData().lastUsedTime = currentTime;
+        }
+
+        return p;
+    }
+
+    /**
+     * Like "getPlayer", but only the name of the player gets read, so other
+     * threads than the main thread may use this. If the player has no handle
+     * yet, a temporary one gets returned. It has the same data as the real
+     * one, which gets created by the main thread.
+     */
+    public NoCheatPlayer getPlayerFromAnyThread(Player player) {
+
+        final NoCheatPlayer p = this.players.get(player.getName());
+
+        if(p == null || p.getPlayer() != player) {
+            return new NoCheatPlayer(player, getData(player.getName()));
+        }
+
+        p.getData().lastUsedTime = currentTime;
+
+        return p;
+    }
+
+    /**
+     * Create the handle for a player that just joined the server
+     */
+    public NoCheatPlayer playerJoined(Player player) {
+        return createHandle(player);
+    }
+
+    private NoCheatPlayer createHandle(Player player) {
+
+        final NoCheatPlayer p = new NoCheatPlayer(player, getData(player.getName()));
+        this.players.put(player.getName(), p);
+
+        return p;
+    }
+
+    /**
+     * Forget the handle of a player that left the server. His data stays
+     * around for a while, in case he returns soon.
+     */
+    public void playerQuit(Player player) {
+
+        NoCheatPlayer p = this.players.get(player.getName());
+
+        if(p != null && p.getPlayer() == player) {
+            this.players.remove(player.getName(), p);
+            p.getData().lastUsedTime = currentTime;
+        }
+    }
+
+    /**
+     * Ask the online players for their permissions again, if that was done
+     * the last time more than "interval" milliseconds ago. Only the main
+     * thread may do this. Other threads can't ask bukkit, so they depend on
+     * this to see changed permissions of players that do nothing else but
+     * chat.
+     */
+    public void refreshPermissions(long time, long interval) {
+        for(NoCheatPlayer p : this.players.values()) {
+            if(time - p.getPermissionsTime() >= interval) {
+                p.refreshPermissions();
+            }
+        }
+    }
+
+    /**
+     * Let all online players ask for their permissions again the next time
+     * one of them is needed
+     */
+    public void expirePermissions() {
+        for(NoCheatPlayer p : this.players.values()) {
+            p.expirePermissions();
+        }
+    }
+
+    /**
+     * The configuration got reloaded, reset the data of online players for
+     * checks whose options are different now in the world they are in.
+     * Players that aren't online get their critical data reset, as it's
+     * unknown in which world they will be.
+     */
+    public void configurationChanged(ConfigurationManager oldConf, ConfigurationManager newConf) {
+
+        for(NoCheatPlayer p : this.players.values()) {
+
+            final String worldName = p.getPlayer().getWorld().getName();
+            final Configuration o = oldConf.getConfigurationForWorld(worldName);
+            final Configuration n = newConf.getConfigurationForWorld(worldName);
+            final BaseData data = p.getData();
+
+            final boolean moving = o.hasSameValues(n, Configuration.MOVING_CHECK) && o.hasSameValues(n, Configuration.MOVING_IDENTIFYCREATIVEMODE);
+
+            if(!moving || !o.hasSameValues(n, Configuration.MOVING_RUNFLY)) {
+                data.moving.clearRunFlyData();
+            }
+
+            if(!moving || !o.hasSameValues(n, Configuration.MOVING_MOREPACKETS)) {
+                data.moving.clearMorePacketsData();
+            }
+
+            if(!o.hasSameValues(n, Configuration.TIMED)) {
+                data.timed.clearCriticalData();
+            }
+        }
+
+        for(Entry<String, BaseData> e : this.map.entrySet()) {
+            if(!this.players.containsKey(e.getKey())) {
+                e.getValue().clearCriticalData();
+            }
+        }
+    }
+
     /**
      * Reset data that may cause problems after e.g. changing the config
-     * 
+     *
      */
     public void clearCriticalData() {
         for(BaseData b : this.map.values()) {
@@ -56,34 +208,54 @@ public class DataManager {
     }
 
     /**
-     * check if some data hasn't been used for a while and remove it
-     * 
+     * Advance the clock used to mark data as used and check if some data
+     * hasn't been used for a while and remove it. Only a part of the map is
+     * looked at with each call, continuing where the previous call stopped,
+     * so this is meant to be called frequently (e.g. every second)
+     *
      */
-    public void cleanDataMap() {
-        synchronized(removals) {
-            long time = System.currentTimeMillis();
-            try {
-                for(Entry<String, BaseData> p : this.map.entrySet()) {
-                    if(p.getValue().shouldBeRemoved(time)) {
-                        removals.add(p.getKey());
-                    }
-                }
+    public synchronized void cleanDataMap() {
 
-                for(String p : removals) {
-                    this.map.remove(p);
-                }
+        final long time = System.currentTimeMillis();
+        currentTime = time;
 
-                removals.clear();
-            } catch(Exception e) {
-                e.printStackTrace();
+        // Events that arrive after a player left may have created a new
+        // handle for him, drop those
+        for(NoCheatPlayer p : this.players.values()) {
+            if(!p.getPlayer().isOnline()) {
+                this.players.remove(p.getPlayer().getName(), p);
             }
         }
-    }
 
-    public void clearCriticalData(String playerName) {
-        BaseData data = this.map.get(playerName);
-        if(data != null) {
-            data.clearCriticalData();
+        int steps = Math.max(minimumCleanupSteps, this.map.size() / cleanupCycleLength);
+
+        try {
+            while(steps-- > 0) {
+                if(cleanupIterator == null || !cleanupIterator.hasNext()) {
+                    // Start over at the beginning, but not twice within one
+                    // call
+                    if(cleanupIterator != null) {
+                        cleanupIterator = null;
+                        break;
+                    }
+                    cleanupIterator = this.map.entrySet().iterator();
+                    if(!cleanupIterator.hasNext()) {
+                        cleanupIterator = null;
+                        break;
+                    }
+                }
+
+                Entry<String, BaseData> p = cleanupIterator.next();
+
+                // Data of players that are online stays, no matter what
+                if(p.getValue().shouldBeRemoved(time) && !this.players.containsKey(p.getKey())) {
+                    // Only remove it if nobody replaced it in the meantime
+                    this.map.remove(p.getKey(), p.getValue());
+                }
+            }
+        } catch(Exception e) {
+            cleanupIterator = null;
+            e.printStackTrace();
         }
     }
 
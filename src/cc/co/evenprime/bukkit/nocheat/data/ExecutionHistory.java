@@ -1,124 +1,148 @@
 package cc.co.evenprime.bukkit.nocheat.data;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import cc.co.evenprime.bukkit.nocheat.actions.types.Action;
 
 /**
- * Store amount of action executions for last 60 seconds
+ * Store amount of action executions for last 60 seconds. Actions get found by
+ * their id, and everything about them is stored in a few primitive arrays.
+ * Only actions that were executed at least once get room in those arrays.
  * 
  */
 public class ExecutionHistory {
 
-    private static class ExecutionHistoryEntry {
+    // How many seconds get monitored
+    private final static int monitoredTimeFrame = 60;
 
-        private final int executionTimes[];
-        private long      lastExecution   = 0;
-        private int       totalEntries    = 0;
-        private long      lastClearedTime = 0;
+    // Action id -> slot + 1, 0 means the action has no slot yet
+    private int[]            slotOfAction       = new int[0];
 
-        private ExecutionHistoryEntry(int monitoredTimeFrame) {
-            this.executionTimes = new int[monitoredTimeFrame];
-        }
+    // Everything below is indexed by slot
+    private Action[]         actions            = new Action[0];
+    private long[]           lastExecution      = new long[0];
+    private int[]            totalEntries       = new int[0];
+    private long[]           lastClearedTime    = new long[0];
 
-        /**
-         * Remember an execution at the specific time
-         */
-        private void addCounter(long time) {
-            // clear out now outdated values from the array
-            if(time - lastClearedTime > 0) {
-                // Clear the next few fields of the array
-                clearTimes(lastClearedTime + 1, time - lastClearedTime);
-                lastClearedTime = time + 1;
-            }
+    // The execution counters of all slots, "monitoredTimeFrame" entries per
+    // slot
+    private int[]            executionTimes     = new int[0];
 
-            executionTimes[(int) (time % executionTimes.length)]++;
-            totalEntries++;
-        }
+    private int              slots              = 0;
+
+    /**
+     * Returns true, if the action should be executed, because all time
+     * criteria have been met. Will add a entry with the time to a list
+     * which will influence further requests, so only use once and remember
+     * the result. Can be called by any thread.
+     * 
+     * @param action
+     * @param time
+     *            a time IN SECONDS
+     * @return
+     */
+    public synchronized boolean executeAction(Action action, long time) {
 
-        /**
-         * Clean parts of the array
-         * 
-         * @param start
-         * @param length
-         */
-        private void clearTimes(long start, long length) {
+        final int slot = getSlot(action);
 
-            if(length <= 0) {
-                return; // nothing to do (yet)
-            }
-            if(length > executionTimes.length) {
-                length = executionTimes.length;
+        // update entry
+        addCounter(slot, time);
+
+        if(totalEntries[slot] > action.delay) {
+            // Execute action?
+            if(lastExecution[slot] <= time - action.repeat) {
+                // Execute action!
+                lastExecution[slot] = time;
+                return true;
             }
+        }
 
-            int j = (int) start % executionTimes.length;
+        return false;
+    }
 
-            for(int i = 0; i < length; i++) {
-                if(j == executionTimes.length) {
-                    j = 0;
-                }
+    private int getSlot(Action action) {
 
-                totalEntries -= executionTimes[j];
-                executionTimes[j] = 0;
+        final int id = action.getId();
 
-                j++;
-            }
+        if(id >= slotOfAction.length) {
+            slotOfAction = Arrays.copyOf(slotOfAction, id + 1);
         }
 
-        public int getCounter() {
-            return totalEntries;
-        }
+        int slot = slotOfAction[id] - 1;
 
-        public long getLastExecution() {
-            return lastExecution;
-        }
+        if(slot < 0) {
+            slot = slots++;
 
-        public void setLastExecution(long time) {
-            this.lastExecution = time;
+            if(slot >= actions.length) {
+                final int size = Math.max(4, actions.length * 2);
+                actions = Arrays.copyOf(actions, size);
+                lastExecution = Arrays.copyOf(lastExecution, size);
+                totalEntries = Arrays.copyOf(totalEntries, size);
+                lastClearedTime = Arrays.copyOf(lastClearedTime, size);
+                executionTimes = Arrays.copyOf(executionTimes, size * monitoredTimeFrame);
+            }
+
+            slotOfAction[id] = slot + 1;
+            actions[slot] = action;
+        } else if(actions[slot] != action) {
+            // The configuration got reloaded. If another action now has this
+            // id start over, otherwise keep counting
+            if(!actions[slot].name.equals(action.name)) {
+                lastExecution[slot] = 0;
+                totalEntries[slot] = 0;
+                lastClearedTime[slot] = 0;
+                Arrays.fill(executionTimes, slot * monitoredTimeFrame, (slot + 1) * monitoredTimeFrame, 0);
+            }
+
+            actions[slot] = action;
         }
+
+        return slot;
     }
 
-    // Store data between Events
-    // time + action + action-counter
-    private final Map<Action, ExecutionHistoryEntry> executionHistory;
+    /**
+     * Remember an execution at the specific time
+     */
+    private void addCounter(int slot, long time) {
+        // clear out now outdated values from the array
+        if(time - lastClearedTime[slot] > 0) {
+            // Clear the next few fields of the array
+            clearTimes(slot, lastClearedTime[slot] + 1, time - lastClearedTime[slot]);
+            lastClearedTime[slot] = time + 1;
+        }
 
-    public ExecutionHistory() {
-        executionHistory = new HashMap<Action, ExecutionHistoryEntry>();
+        executionTimes[slot * monitoredTimeFrame + (int) (time % monitoredTimeFrame)]++;
+        totalEntries[slot]++;
     }
 
     /**
-     * Returns true, if the action should be executed, because all time
-     * criteria have been met. Will add a entry with the time to a list
-     * which will influence further requests, so only use once and remember
-     * the result
+     * Clean parts of the array
      * 
-     * @param action
-     * @param time
-     *            a time IN SECONDS
-     * @return
+     * @param slot
+     * @param start
+     * @param length
      */
-    public boolean executeAction(Action action, long time) {
-
-        ExecutionHistoryEntry entry = executionHistory.get(action);
+    private void clearTimes(int slot, long start, long length) {
 
-        if(entry == null) {
-            entry = new ExecutionHistoryEntry(60);
-            executionHistory.put(action, entry);
+        if(length <= 0) {
+            return; // nothing to do (yet)
+        }
+        if(length > monitoredTimeFrame) {
+            length = monitoredTimeFrame;
         }
 
-        // update entry
-        entry.addCounter(time);
+        final int offset = slot * monitoredTimeFrame;
+        int j = (int) (start % monitoredTimeFrame);
 
-        if(entry.getCounter() > action.delay) {
-            // Execute action?
-            if(entry.getLastExecution() <= time - action.repeat) {
-                // Execute action!
-                entry.setLastExecution(time);
-                return true;
+        for(int i = 0; i < length; i++) {
+            if(j == monitoredTimeFrame) {
+                j = 0;
             }
-        }
 
-        return false;
+            totalEntries[slot] -= executionTimes[offset + j];
+            executionTimes[offset + j] = 0;
+
+            j++;
+        }
     }
 }
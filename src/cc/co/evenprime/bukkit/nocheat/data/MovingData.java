@@ -1,5 +1,7 @@
 package cc.co.evenprime.bukkit.nocheat.data;
 
+import org.bukkit.World;
+
 /**
  * Player specific data for the moving check group
  */
@@ -38,14 +40,40 @@ public class MovingData extends Data {
     public final PreciseLocation  from                    = new PreciseLocation();
     public final PreciseLocation  to                      = new PreciseLocation();
 
+    public final BlockTypeCache   blockTypes              = new BlockTypeCache();
+
+    // The ground check result of the last "to" location, to be reused if the
+    // next "from" location is the same
+    public final PreciseLocation  lastTo                  = new PreciseLocation();
+    public World                  lastToWorld;
+    public int                    lastToStamp;
+    public int                    lastToType;
+
     @Override
     public void clearCriticalData() {
         teleportTo.reset();
+        clearRunFlyData();
+        clearMorePacketsData();
+        blockTypes.reset();
+        lastTo.reset();
+        lastToWorld = null;
+    }
+
+    /**
+     * Reset what the runfly and nofall checks know about the player
+     */
+    public void clearRunFlyData() {
         jumpPhase = 0;
         runflySetBackPoint.reset();
         fallDistance = 0;
         lastAddedFallDistance = 0;
         bunnyhopdelay = 0;
+    }
+
+    /**
+     * Reset what the morepackets check knows about the player
+     */
+    public void clearMorePacketsData() {
         morePacketsBuffer = 50;
         morePacketsSetbackPoint.reset();
         lastElapsedIngameSeconds = 0;
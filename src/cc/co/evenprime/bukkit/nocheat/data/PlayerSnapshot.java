@@ -0,0 +1,103 @@
+package cc.co.evenprime.bukkit.nocheat.data;
+
+import net.minecraft.server.EntityPlayer;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+
+import cc.co.evenprime.bukkit.nocheat.checks.CheckUtil;
+
+/**
+ * The state of a player that many checks need, read from bukkit at most once
+ * per tick and reused by all checks during that tick. The position changes
+ * when the player moves, so moves and teleports make the snapshot outdated
+ * too. Only use it on the main thread.
+ *
+ */
+public final class PlayerSnapshot {
+
+    // Advanced once per tick, see "nextTick"
+    private static volatile int currentTick;
+
+    private int                 tick;
+    private boolean             valid;
+
+    public World                world;
+    public boolean              sneaking;
+    public boolean              sprinting;
+    public boolean              insideVehicle;
+    public boolean              dead;
+
+    // Position of the feet and of the eyes
+    public double               x, y, z;
+    public double               eyeY;
+    public float                yaw, pitch;
+
+    /**
+     * Call this once per tick, to let all snapshots become outdated
+     */
+    public static void nextTick() {
+        currentTick++;
+    }
+
+    /**
+     * How many ticks passed since NoCheat got enabled
+     */
+    public static int getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Read the state of the player again, if it wasn't read yet during this
+     * tick or got outdated
+     */
+    public PlayerSnapshot update(Player player) {
+
+        final int now = currentTick;
+
+        if(valid && tick == now)
+            return this;
+
+        world = player.getWorld();
+        sneaking = player.isSneaking();
+        sprinting = CheckUtil.isSprinting(player);
+        insideVehicle = player.isInsideVehicle();
+        dead = player.isDead();
+
+        if(player instanceof CraftPlayer) {
+            final EntityPlayer p = ((CraftPlayer) player).getHandle();
+
+            x = p.locX;
+            y = p.locY;
+            z = p.locZ;
+            yaw = p.yaw;
+            pitch = p.pitch;
+        } else {
+            // Not a real player, e.g. a NPC of another plugin
+            final Location l = player.getLocation();
+
+            x = l.getX();
+            y = l.getY();
+            z = l.getZ();
+            yaw = l.getYaw();
+            pitch = l.getPitch();
+        }
+
+        eyeY = y + player.getEyeHeight();
+
+        tick = now;
+        valid = true;
+
+        return this;
+    }
+
+    /**
+     * Read everything again the next time, e.g. because the player moved
+     */
+    public void invalidate() {
+        valid = false;
+        world = null;
+    }
+}
@@ -41,4 +41,8 @@ public final class PreciseLocation {
     public final boolean equals(Location location) {
         return location.getX() == x && location.getY() == y && location.getZ() == z;
     }
+
+    public final boolean equals(PreciseLocation location) {
+        return location.x == x && location.y == y && location.z == z;
+    }
 }
@@ -0,0 +1,123 @@
+package cc.co.evenprime.bukkit.nocheat.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count how often certain values (times in nanoseconds) were recorded, to be
+ * able to tell percentiles and the maximum. Values are sorted into buckets
+ * that grow exponentially, every power of two is split into 8 buckets, so a
+ * reported value is at most 12.5% off. Recording is lock-free and can be done
+ * by any thread.
+ *
+ */
+public final class Histogram {
+
+    private static final int    SUBBITS = 3;
+    private static final int    SUBMASK = (1 << SUBBITS) - 1;
+    private static final int    BUCKETS = (64 - SUBBITS) << SUBBITS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong      max;
+
+    public Histogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        max = new AtomicLong();
+    }
+
+    public void record(long value) {
+
+        if(value < 0)
+            value = 0;
+
+        counts.incrementAndGet(bucket(value));
+
+        long currentMax = max.get();
+        while(value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public void clear() {
+        for(int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+    }
+
+    /**
+     * Add everything the other histogram recorded to this one
+     */
+    public void add(Histogram other) {
+        for(int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if(count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+
+        long otherMax = other.max.get();
+        long currentMax = max.get();
+        while(otherMax > currentMax && !max.compareAndSet(currentMax, otherMax)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value that "percentile" percent of all recorded values are
+     * smaller than or equal to (roughly)
+     */
+    public long getPercentile(double percentile) {
+
+        final long count = getCount();
+
+        if(count == 0)
+            return 0;
+
+        final long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0D));
+
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if(seen >= target) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    private static int bucket(long value) {
+
+        // Small values get a bucket each
+        if(value <= SUBMASK)
+            return (int) value;
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+
+        return ((exponent - SUBBITS + 1) << SUBBITS) + (int) ((value >>> (exponent - SUBBITS)) & SUBMASK);
+    }
+
+    private static long highestValue(int bucket) {
+
+        if(bucket <= SUBMASK)
+            return bucket;
+
+        final int shift = (bucket >> SUBBITS) - 1;
+        final long lowest = ((long) ((bucket & SUBMASK) | (1 << SUBBITS))) << shift;
+
+        return lowest + (1L << shift) - 1;
+    }
+}
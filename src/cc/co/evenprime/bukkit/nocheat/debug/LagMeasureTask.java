@@ -1,10 +1,12 @@
 package cc.co.evenprime.bukkit.nocheat.debug;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.data.BlockTypeCache;
 
 public class LagMeasureTask implements Runnable {
 
-    private int           ingameseconds            = 1;
+    // Read by other threads too
+    private volatile int  ingameseconds            = 1;
     private long          lastIngamesecondTime     = System.currentTimeMillis();
     private long          lastIngamesecondDuration = 2000L;
     private boolean       skipCheck                = true;
@@ -38,10 +40,17 @@ public class LagMeasureTask implements Runnable {
         lastIngamesecondTime = time;
         ingameseconds++;
 
-        // Check if some data is outdated now and let it be removed
-        if(ingameseconds % 62 == 0) {
-            plugin.cleanDataMap();
-        }
+        // Check if some data is outdated now and let it be removed, a few
+        // entries at a time
+        plugin.cleanDataMap();
+
+        // Cached block types may be outdated by changes NoCheat didn't
+        // notice, so read them again from time to time
+        BlockTypeCache.expireAll();
+
+        plugin.refreshPermissions(time);
+
+        plugin.updatePerformance(time);
 
     }
 
@@ -0,0 +1,125 @@
+package cc.co.evenprime.bukkit.nocheat.debug;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Read a file written by MoveTracer, one event at a time. After "next"
+ * returned true, the fields that belong to the kind of the event are set.
+ * Doesn't need a running server, so it can be used by tools to replay
+ * recorded movements.
+ *
+ */
+public class MoveTraceReader {
+
+    private final DataInputStream in;
+    private final int             version;
+
+    public final String           playerName;
+    public final String           worldName;
+    // When recording started, in milliseconds
+    public final long             startTime;
+
+    // The current event
+    public int                    kind;
+    // Milliseconds and server ticks since recording started
+    public int                    time;
+    public int                    tick;
+    public double                 fromX, fromY, fromZ;
+    public double                 x, y, z;
+    public int                    flags;
+    public String                 teleportWorld;
+    // Type ids around the target of a move, see "getBlockTypeId"
+    public final int[]            blocks = new int[MoveTracer.BLOCKS];
+
+    public MoveTraceReader(InputStream input) throws IOException {
+
+        this.in = new DataInputStream(new BufferedInputStream(input));
+
+        if(in.readInt() != MoveTracer.MAGIC) {
+            throw new IOException("Not a NoCheat trace file");
+        }
+
+        version = in.readUnsignedByte();
+        if(version < 1 || version > MoveTracer.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+
+        playerName = in.readUTF();
+        worldName = in.readUTF();
+        startTime = in.readLong();
+    }
+
+    /**
+     * Read the next event
+     * 
+     * @return false if there are no more events
+     */
+    public boolean next() throws IOException {
+
+        final int k = in.read();
+        if(k == -1)
+            return false;
+
+        try {
+            kind = k;
+            time = in.readInt();
+            // Version 1 didn't record ticks, a tick takes 50 milliseconds if
+            // the server doesn't lag
+            tick = version >= 2 ? in.readInt() : time / 50;
+
+            switch (kind) {
+            case MoveTracer.MOVE:
+                fromX = in.readDouble();
+                fromY = in.readDouble();
+                fromZ = in.readDouble();
+                x = in.readDouble();
+                y = in.readDouble();
+                z = in.readDouble();
+                flags = in.readUnsignedByte();
+                // Versions before 3 cut type ids down to a byte
+                for(int i = 0; i < blocks.length; i++) {
+                    blocks[i] = version >= 3 ? in.readUnsignedShort() : in.readUnsignedByte();
+                }
+                break;
+            case MoveTracer.VELOCITY:
+                x = in.readDouble();
+                y = in.readDouble();
+                z = in.readDouble();
+                break;
+            case MoveTracer.TELEPORT:
+                x = in.readDouble();
+                y = in.readDouble();
+                z = in.readDouble();
+                teleportWorld = in.readUTF();
+                break;
+            default:
+                throw new IOException("Unknown event kind " + kind);
+            }
+        } catch(EOFException e) {
+            // The server stopped while the last part was written
+            return false;
+        }
+
+        return true;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * Get the type id of a block of the current move, relative to the block
+     * the player moved into. dx and dz go from -1 to 1, dy from -1 to 2.
+     */
+    public int getBlockTypeId(int dx, int dy, int dz) {
+        return blocks[((dx + 1) * MoveTracer.BLOCKS_Y + (dy + 1)) * MoveTracer.BLOCKS_XZ + (dz + 1)];
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,308 @@
+package cc.co.evenprime.bukkit.nocheat.debug;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
+import cc.co.evenprime.bukkit.nocheat.data.BlockTypeCache;
+import cc.co.evenprime.bukkit.nocheat.data.PlayerSnapshot;
+
+/**
+ * Record the move, velocity and teleport events of some players into compact
+ * binary files, together with the block types around each position the
+ * player moved to. The files can be read with MoveTraceReader, to look at
+ * or replay what happened without a running server.
+ *
+ * Events get recorded into memory on the main thread and written to the file
+ * in the background every now and then.
+ *
+ */
+public class MoveTracer {
+
+    // "NCTR", the start of every trace file
+    public static final int       MAGIC     = 0x4E435452;
+    public static final int       VERSION   = 3;
+
+    public static final int       MOVE      = 1;
+    public static final int       VELOCITY  = 2;
+    public static final int       TELEPORT  = 3;
+
+    // Flags of a move
+    public static final int       SNEAKING  = 1;
+    public static final int       SPRINTING = 2;
+    public static final int       VEHICLE   = 4;
+    public static final int       SETBACK   = 8;
+
+    // Blocks around the target of a move, 3x3 columns from one below to two
+    // above the feet of the player. Each type id takes a short, like in the
+    // BlockTypeCache (versions before 3 had a byte)
+    public static final int       BLOCKS_XZ = 3;
+    public static final int       BLOCKS_Y  = 4;
+    public static final int       BLOCKS    = BLOCKS_XZ * BLOCKS_Y * BLOCKS_XZ;
+
+    // Write to the file once this much got recorded
+    private static final int      FLUSHSIZE = 64 * 1024;
+
+    private static final class Trace {
+
+        private final File                  file;
+        private final long                  startTime;
+        private final int                   startTick;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSHSIZE + 1024);
+        private final DataOutputStream      out    = new DataOutputStream(buffer);
+
+        private Trace(File file, long startTime, int startTick) {
+            this.file = file;
+            this.startTime = startTime;
+            this.startTick = startTick;
+        }
+    }
+
+    private final File               folder;
+
+    // Only used by the main thread
+    private final Map<String, Trace> traces = new HashMap<String, Trace>();
+    private ExecutorService          writer;
+
+    public MoveTracer(File folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Is anybody traced at all? Cheap enough to be asked for every event.
+     */
+    public boolean isTracing() {
+        return !traces.isEmpty();
+    }
+
+    /**
+     * Start tracing the player, or stop it if he is already traced
+     * 
+     * @return the file that the events get written to, or null if tracing
+     *         stopped
+     */
+    public File toggle(Player player) throws IOException {
+
+        final Trace old = traces.remove(player.getName());
+
+        if(old != null) {
+            flush(old);
+            return null;
+        }
+
+        if(!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Can't create folder " + folder.getPath());
+        }
+
+        final long time = System.currentTimeMillis();
+        final String date = new SimpleDateFormat("yyMMdd-HHmmss").format(new Date(time));
+        final Trace trace = new Trace(new File(folder, player.getName() + "-" + date + ".nctrace"), time, PlayerSnapshot.getCurrentTick());
+
+        trace.out.writeInt(MAGIC);
+        trace.out.writeByte(VERSION);
+        trace.out.writeUTF(player.getName());
+        trace.out.writeUTF(player.getWorld().getName());
+        trace.out.writeLong(time);
+
+        traces.put(player.getName(), trace);
+
+        return trace.file;
+    }
+
+    public void move(NoCheatPlayer player, Location from, Location to, boolean setBack) {
+
+        final Trace trace = traces.get(player.getName());
+        if(trace == null)
+            return;
+
+        final PlayerSnapshot snapshot = player.getSnapshot();
+
+        int flags = 0;
+        if(snapshot.sneaking)
+            flags |= SNEAKING;
+        if(snapshot.sprinting)
+            flags |= SPRINTING;
+        if(snapshot.insideVehicle)
+            flags |= VEHICLE;
+        if(setBack)
+            flags |= SETBACK;
+
+        try {
+            final DataOutputStream out = start(trace, MOVE);
+            out.writeDouble(from.getX());
+            out.writeDouble(from.getY());
+            out.writeDouble(from.getZ());
+            out.writeDouble(to.getX());
+            out.writeDouble(to.getY());
+            out.writeDouble(to.getZ());
+            out.writeByte(flags);
+
+            final World world = to.getWorld();
+            final BlockTypeCache blocks = player.getData().moving.blockTypes;
+            final int x = (int) Math.floor(to.getX()) - 1;
+            final int y = (int) Math.floor(to.getY()) - 1;
+            final int z = (int) Math.floor(to.getZ()) - 1;
+
+            for(int i = 0; i < BLOCKS_XZ; i++) {
+                for(int j = 0; j < BLOCKS_Y; j++) {
+                    for(int k = 0; k < BLOCKS_XZ; k++) {
+                        out.writeShort(blocks.getTypeId(world, x + i, y + j, z + k));
+                    }
+                }
+            }
+
+            end(trace);
+        } catch(IOException e) {
+            stop(player.getName(), e);
+        }
+    }
+
+    public void velocity(Player player, Vector velocity) {
+
+        final Trace trace = traces.get(player.getName());
+        if(trace == null)
+            return;
+
+        try {
+            final DataOutputStream out = start(trace, VELOCITY);
+            out.writeDouble(velocity.getX());
+            out.writeDouble(velocity.getY());
+            out.writeDouble(velocity.getZ());
+            end(trace);
+        } catch(IOException e) {
+            stop(player.getName(), e);
+        }
+    }
+
+    public void teleport(Player player, Location to) {
+
+        final Trace trace = traces.get(player.getName());
+        if(trace == null)
+            return;
+
+        try {
+            final DataOutputStream out = start(trace, TELEPORT);
+            out.writeDouble(to.getX());
+            out.writeDouble(to.getY());
+            out.writeDouble(to.getZ());
+            out.writeUTF(to.getWorld().getName());
+            end(trace);
+        } catch(IOException e) {
+            stop(player.getName(), e);
+        }
+    }
+
+    /**
+     * Stop tracing the player, e.g. because he left the server
+     */
+    public void stop(Player player) {
+        final Trace trace = traces.remove(player.getName());
+        if(trace != null) {
+            flush(trace);
+        }
+    }
+
+    /**
+     * Stop tracing everybody and wait a few seconds for the files to be
+     * written
+     */
+    public void stopAll() {
+
+        for(Trace trace : traces.values()) {
+            flush(trace);
+        }
+        traces.clear();
+
+        if(writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    private DataOutputStream start(Trace trace, int kind) throws IOException {
+        trace.out.writeByte(kind);
+        trace.out.writeInt((int) (System.currentTimeMillis() - trace.startTime));
+        // Checks count ticks, not milliseconds, so a replay needs both
+        trace.out.writeInt(PlayerSnapshot.getCurrentTick() - trace.startTick);
+        return trace.out;
+    }
+
+    private void end(Trace trace) {
+        if(trace.buffer.size() >= FLUSHSIZE) {
+            flush(trace);
+        }
+    }
+
+    private void stop(String name, IOException e) {
+        System.out.println("NoCheat: Stopped tracing " + name + ": " + e.getMessage());
+        traces.remove(name);
+    }
+
+    /**
+     * Hand what got recorded to the background thread, which appends it to
+     * the file
+     */
+    private void flush(final Trace trace) {
+
+        if(trace.buffer.size() == 0)
+            return;
+
+        final byte[] bytes = trace.buffer.toByteArray();
+        trace.buffer.reset();
+
+        if(writer == null) {
+            // A single thread, to keep the order of the written chunks
+            writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "NoCheat trace writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        writer.execute(new Runnable() {
+
+            public void run() {
+                OutputStream file = null;
+                try {
+                    file = new FileOutputStream(trace.file, true);
+                    file.write(bytes);
+                } catch(IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    if(file != null) {
+                        try {
+                            file.close();
+                        } catch(IOException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }
+        });
+    }
+}
@@ -1,46 +1,147 @@
 package cc.co.evenprime.bukkit.nocheat.debug;
 
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Measure how much time gets spent on one type of event. Besides the total
+ * time, the distribution of times gets recorded, both since the start and
+ * for each of the last minutes.
+ *
+ */
 public class Performance {
 
-    private long totalTime = 0;
-    private long counter = 1; // start with 1 to avoid DIV/0 errors
-    private final boolean enabled;
-    
+    // How many complete minutes are kept for the windowed views
+    public static final int              MINUTES = 10;
+
+    private final AtomicLong             totalTime = new AtomicLong();
+    private final AtomicLong             counter   = new AtomicLong();
+    private final boolean                enabled;
+    // Gets told about the measured times, may be null
+    private final TickGovernor           governor;
+
+    // Set by the governor, if the check should be skipped for now
+    private volatile boolean             shed;
+    private final AtomicLong             shedCounter = new AtomicLong();
+
+    private final Histogram              histogram = new Histogram();
+    private final Histogram[]            minutes   = new Histogram[MINUTES + 1];
+    private volatile int                 currentMinute;
+
     private static final long            NANO   = 1;
     private static final long            MICRO  = NANO * 1000;
     private static final long            MILLI  = MICRO * 1000;
     private static final long            SECOND = MILLI * 1000;
     private static final long            MINUTE = SECOND * 60;
-    
-    
+
     public Performance(boolean enabled) {
+        this(enabled, null);
+    }
+
+    public Performance(boolean enabled, TickGovernor governor) {
         this.enabled = enabled;
+        this.governor = governor;
+
+        for(int i = 0; i < minutes.length; i++) {
+            minutes[i] = new Histogram();
+        }
     }
-    
+
     public void addTime(long nanoTime) {
-        counter++;
-        this.totalTime += nanoTime;
+        counter.incrementAndGet();
+        totalTime.addAndGet(nanoTime);
+        histogram.record(nanoTime);
+        minutes[currentMinute].record(nanoTime);
+
+        if(governor != null)
+            governor.spent(nanoTime);
     }
-    
+
+    /**
+     * Get the start time for measuring something, to be handed to "stop"
+     * afterwards
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void stop(long start) {
+        if(enabled) {
+            addTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Should the measured check be skipped to keep the server running
+     * smoothly? Every skip gets counted.
+     */
+    public boolean isShed() {
+        if(shed) {
+            shedCounter.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    void setShed(boolean shed) {
+        this.shed = shed;
+    }
+
+    /**
+     * How often the measured check got skipped by the governor
+     */
+    public long getShedCounter() {
+        return shedCounter.get();
+    }
+
+    /**
+     * Start recording a new minute, forgetting the oldest one
+     */
+    void nextMinute() {
+        final int next = (currentMinute + 1) % minutes.length;
+        minutes[next].clear();
+        currentMinute = next;
+    }
+
     public long getTotalTime() {
-        return this.totalTime;
+        return this.totalTime.get();
     }
-    
+
     public long getRelativeTime() {
-        return this.totalTime / this.counter;
+        final long count = this.counter.get();
+        return count > 0 ? this.totalTime.get() / count : 0;
     }
-    
-    
+
     public long getCounter() {
-        return this.counter;
+        return this.counter.get();
     }
-    
-    
+
+    /**
+     * Get the distribution of times since the start
+     */
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Get the distribution of times of the last "count" complete minutes (at
+     * most MINUTES)
+     */
+    public Histogram getHistogram(int count) {
+
+        final Histogram result = new Histogram();
+        final int current = currentMinute;
+
+        for(int i = 1; i <= count && i <= MINUTES; i++) {
+            result.add(minutes[(current - i + minutes.length) % minutes.length]);
+        }
+
+        return result;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
-    
+
     private static String getAppropriateUnit(long timeInNanoseconds) {
 
         // more than 10 minutes
@@ -5,24 +5,115 @@ import java.util.Map;
 
 public class PerformanceManager {
 
+    /**
+     * What gets measured. Some types only measure a part of another type (their
+     * parent), e.g. a single check that gets executed while handling an event.
+     * Parents are always listed before their children.
+     */
     public enum Type {
-        BLOCKBREAK, BLOCKDAMAGE, BLOCKPLACE, CHAT, MOVING, VELOCITY, FIGHT, TIMED
-    }
+        BLOCKBREAK(null),
+        BLOCKBREAK_NOSWING(BLOCKBREAK),
+        BLOCKBREAK_REACH(BLOCKBREAK),
+        BLOCKBREAK_DIRECTION(BLOCKBREAK),
+        BLOCKDAMAGE(null),
+        BLOCKPLACE(null),
+        BLOCKPLACE_NOSWING(BLOCKPLACE),
+        BLOCKPLACE_REACH(BLOCKPLACE),
+        BLOCKPLACE_ONLIQUID(BLOCKPLACE),
+        CHAT(null),
+        MOVING(null),
+        MOVING_RUNNING(MOVING),
+        MOVING_NOFALL(MOVING_RUNNING),
+        MOVING_FLYING(MOVING),
+        MOVING_MOREPACKETS(MOVING),
+        VELOCITY(null),
+        FIGHT(null),
+        FIGHT_NOSWING(FIGHT),
+        FIGHT_DIRECTION(FIGHT),
+        FIGHT_SELFHIT(FIGHT),
+        TIMED(null),
+        // Actions get executed by checks, so their time is also part of the
+        // time of the event types above
+        ACTIONS(null),
+        ACTIONS_LOG(ACTIONS),
+        ACTIONS_CONSOLECOMMAND(ACTIONS);
+
+        private final Type parent;
+
+        private Type(Type parent) {
+            this.parent = parent;
+        }
 
+        public Type getParent() {
+            return parent;
+        }
 
+        public int getDepth() {
+            return parent == null ? 0 : parent.getDepth() + 1;
+        }
+
+        /**
+         * The name used in the configuration, e.g. "fight.direction"
+         */
+        public String getName() {
+            return name().toLowerCase().replace('_', '.');
+        }
+
+        public static Type getTypeByName(String name) {
+            for(Type type : values()) {
+                if(type.getName().equalsIgnoreCase(name)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
 
     private final Map<Type, Performance> map;
 
-    public PerformanceManager() {
+    // Time NoCheat spent per server tick, for all types together
+    private final Performance            ticks;
+
+    // When the next minute starts for the windowed views
+    private long                         nextMinuteTime;
+
+    public PerformanceManager(TickGovernor governor) {
 
         map = new HashMap<Type, Performance>();
 
         for(Type type : Type.values()) {
-            map.put(type, new Performance(true));
+            // Only the event types tell the governor how much time got spent,
+            // their checks and actions are part of that already
+            final boolean counted = type.getParent() == null && type != Type.ACTIONS;
+            map.put(type, new Performance(true, counted ? governor : null));
         }
+
+        ticks = new Performance(true);
+
+        nextMinuteTime = System.currentTimeMillis() + 60000L;
     }
 
     public Performance get(Type type) {
         return map.get(type);
     }
+
+    public Performance getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Call this periodically (e.g. every second) to let the windowed views of
+     * the performance counters move on once a minute is over
+     */
+    public void update(long time) {
+        if(time >= nextMinuteTime) {
+            // If more than a minute got lost, don't try to catch up
+            nextMinuteTime = Math.max(nextMinuteTime + 60000L, time);
+
+            for(Performance p : map.values()) {
+                p.nextMinute();
+            }
+            ticks.nextMinute();
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package cc.co.evenprime.bukkit.nocheat.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.config.cache.CCGovernor;
+import cc.co.evenprime.bukkit.nocheat.data.PlayerSnapshot;
+import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
+
+/**
+ * Keep track of how much time NoCheat spends during each server tick. If it
+ * is more than the configured budget for a while, checks get skipped in the
+ * configured order, one more each tick, until NoCheat is within its budget
+ * again. Once it needs much less than its budget, the skipped checks get
+ * enabled again one by one, in reverse order.
+ *
+ */
+public class TickGovernor implements Runnable {
+
+    private final NoCheat      plugin;
+
+    // Time spent during the current tick, in nanoseconds
+    private final AtomicLong   spent  = new AtomicLong();
+
+    // Only used by the main thread
+    private PerformanceManager performance;
+    private CCGovernor         config;
+    private long               average;
+    private int                level;
+    private int                maxLevel;
+    private long               ticksOverBudget;
+
+    private int                taskId = -1;
+
+    public TickGovernor(NoCheat plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start(PerformanceManager performance, CCGovernor config) {
+        this.performance = performance;
+        configure(config);
+        taskId = plugin.getServer().getScheduler().scheduleSyncRepeatingTask(plugin, this, 1, 1);
+    }
+
+    /**
+     * Use new settings, e.g. after the configuration got reloaded. Everything
+     * that got skipped gets checked again.
+     */
+    public void configure(CCGovernor config) {
+        setLevel(0);
+        this.config = config;
+        this.average = 0;
+    }
+
+    /**
+     * Add some time spent by NoCheat during the current tick
+     */
+    void spent(long nanoTime) {
+        spent.addAndGet(nanoTime);
+    }
+
+    public void run() {
+
+        final long lastTick = spent.getAndSet(0);
+
+        // The state of players may have changed since the last tick
+        PlayerSnapshot.nextTick();
+
+        performance.getTicks().addTime(lastTick);
+
+        if(!config.active) {
+            setLevel(0);
+            return;
+        }
+
+        // Smooth it a bit, a single slow tick is no reason to react
+        average = (average * 3 + lastTick) / 4;
+
+        if(average > config.budget) {
+            ticksOverBudget++;
+            setLevel(level + 1);
+        } else if(average < config.budget / 2) {
+            setLevel(level - 1);
+        }
+    }
+
+    private void setLevel(int newLevel) {
+
+        final Type[] order = config == null ? new Type[0] : config.shedOrder;
+
+        newLevel = Math.max(0, Math.min(newLevel, order.length));
+
+        if(newLevel == level)
+            return;
+
+        for(int i = 0; i < order.length; i++) {
+            performance.get(order[i]).setShed(i < newLevel);
+        }
+
+        level = newLevel;
+        maxLevel = Math.max(maxLevel, level);
+    }
+
+    public void cancel() {
+        if(taskId != -1) {
+            plugin.getServer().getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+    }
+
+    /**
+     * How many checks of the shed order get skipped right now
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * The most checks that got skipped at the same time
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    public long getTicksOverBudget() {
+        return ticksOverBudget;
+    }
+
+    public CCGovernor getConfig() {
+        return config;
+    }
+}
@@ -3,7 +3,6 @@ package cc.co.evenprime.bukkit.nocheat.events;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.Event.Priority;
 import org.bukkit.event.block.BlockBreakEvent;
@@ -12,8 +11,9 @@ import org.bukkit.event.block.BlockListener;
 import org.bukkit.plugin.PluginManager;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.blockbreak.BlockBreakCheck;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
@@ -58,11 +58,11 @@ public class BlockBreakEventManager extends BlockListener implements EventManage
         if(performanceCheck)
             nanoTimeStart = System.nanoTime();
 
-        final Player player = event.getPlayer();
+        final NoCheatPlayer player = plugin.getPlayer(event.getPlayer());
         final ConfigurationCache cc = plugin.getConfig(player);
 
         // Find out if checks need to be done for that player
-        if(cc.blockbreak.check && !player.hasPermission(Permissions.BLOCKBREAK)) {
+        if(cc.blockbreak.check && !player.hasPermission(CheckPermission.BLOCKBREAK)) {
 
             boolean cancel = false;
 
@@ -94,7 +94,7 @@ public class BlockBreakEventManager extends BlockListener implements EventManage
             nanoTimeStart = System.nanoTime();
 
         // Get the player-specific stored data that applies here
-        final BaseData data = plugin.getData(event.getPlayer().getName());
+        final BaseData data = plugin.getPlayer(event.getPlayer()).getData();
 
         // Remember this location. We ignore block breaks in the block-break
         // direction check that are insta-breaks
@@ -0,0 +1,196 @@
+package cc.co.evenprime.bukkit.nocheat.events;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+import org.bukkit.event.Event.Priority;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockListener;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.entity.EntityListener;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.player.PlayerListener;
+import org.bukkit.plugin.PluginManager;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
+import cc.co.evenprime.bukkit.nocheat.data.BlockTypeCache;
+
+/**
+ * Watch for blocks that change, to tell the block type caches of the players
+ * that they have to read those blocks again
+ *
+ */
+public class BlockChangeEventManager extends BlockListener implements EventManager {
+
+    // How far a piston may move blocks
+    private final static int pistonRange = 13;
+
+    public BlockChangeEventManager(NoCheat plugin) {
+
+        PluginManager pm = plugin.getServer().getPluginManager();
+
+        pm.registerEvent(Event.Type.BLOCK_PLACE, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_BREAK, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_PHYSICS, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_FROMTO, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_BURN, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_FADE, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_FORM, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_SPREAD, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.LEAVES_DECAY, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_PISTON_EXTEND, this, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.BLOCK_PISTON_RETRACT, this, Priority.Monitor, plugin);
+
+        pm.registerEvent(Event.Type.ENTITY_EXPLODE, new EntityListener() {
+
+            @Override
+            public void onEntityExplode(EntityExplodeEvent event) {
+                if(event.isCancelled())
+                    return;
+
+                for(Block block : event.blockList()) {
+                    blockChanged(block);
+                }
+            }
+        }, Priority.Monitor, plugin);
+
+        // Liquids placed or picked up with buckets don't cause block events
+        PlayerListener bucketListener = new PlayerListener() {
+
+            @Override
+            public void onPlayerBucketEmpty(PlayerBucketEmptyEvent event) {
+                if(!event.isCancelled())
+                    bucketUsed(event);
+            }
+
+            @Override
+            public void onPlayerBucketFill(PlayerBucketFillEvent event) {
+                if(!event.isCancelled())
+                    bucketUsed(event);
+            }
+        };
+
+        pm.registerEvent(Event.Type.PLAYER_BUCKET_EMPTY, bucketListener, Priority.Monitor, plugin);
+        pm.registerEvent(Event.Type.PLAYER_BUCKET_FILL, bucketListener, Priority.Monitor, plugin);
+    }
+
+    @Override
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onBlockBreak(BlockBreakEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onBlockPhysics(BlockPhysicsEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onBlockFromTo(BlockFromToEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getToBlock());
+    }
+
+    @Override
+    public void onBlockBurn(BlockBurnEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onBlockFade(BlockFadeEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onBlockForm(BlockFormEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onBlockSpread(BlockSpreadEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        if(!event.isCancelled())
+            blockChanged(event.getBlock());
+    }
+
+    @Override
+    public void onBlockPistonExtend(BlockPistonExtendEvent event) {
+        if(!event.isCancelled())
+            blocksChanged(event.getBlock(), pistonRange);
+    }
+
+    @Override
+    public void onBlockPistonRetract(BlockPistonRetractEvent event) {
+        if(!event.isCancelled())
+            blocksChanged(event.getBlock(), 2);
+    }
+
+    /**
+     * The liquid ends up in (or gets taken from) the clicked block or the
+     * block next to it, depending on the clicked block
+     */
+    private static void bucketUsed(PlayerBucketEvent event) {
+        final Block clicked = event.getBlockClicked();
+
+        if(clicked == null)
+            return;
+
+        blockChanged(clicked);
+        if(event.getBlockFace() != null) {
+            blockChanged(clicked.getRelative(event.getBlockFace()));
+        }
+    }
+
+    private static void blockChanged(Block block) {
+        BlockTypeCache.blockChanged(block.getX(), block.getZ());
+    }
+
+    /**
+     * Blocks within "range" of the given block may have changed, which may
+     * affect several chunks
+     */
+    private static void blocksChanged(Block block, int range) {
+        final int x = block.getX();
+        final int z = block.getZ();
+
+        for(int chunkX = (x - range) >> 4; chunkX <= (x + range) >> 4; chunkX++) {
+            for(int chunkZ = (z - range) >> 4; chunkZ <= (z + range) >> 4; chunkZ++) {
+                BlockTypeCache.blockChanged(chunkX << 4, chunkZ << 4);
+            }
+        }
+    }
+
+    public List<String> getActiveChecks(ConfigurationCache cc) {
+        return Collections.emptyList();
+    }
+}
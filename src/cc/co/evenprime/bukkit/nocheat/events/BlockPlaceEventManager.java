@@ -3,7 +3,6 @@ package cc.co.evenprime.bukkit.nocheat.events;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.Event.Priority;
 import org.bukkit.event.block.BlockListener;
@@ -11,9 +10,10 @@ import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.plugin.PluginManager;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.blockplace.BlockPlaceCheck;
 import cc.co.evenprime.bukkit.nocheat.checks.moving.RunFlyCheck;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
@@ -52,9 +52,8 @@ public class BlockPlaceEventManager extends BlockListener implements EventManage
                 if(event.isCancelled())
                     return;
 
-                final Player player = event.getPlayer();
                 // Get the player-specific stored data that applies here
-                movingCheck.blockPlaced(player, event.getBlockPlaced());
+                movingCheck.blockPlaced(plugin.getPlayer(event.getPlayer()), event.getBlockPlaced());
 
             }
         }, Priority.Monitor, plugin);
@@ -75,11 +74,11 @@ public class BlockPlaceEventManager extends BlockListener implements EventManage
 
         boolean cancel = false;
 
-        final Player player = event.getPlayer();
+        final NoCheatPlayer player = plugin.getPlayer(event.getPlayer());
         final ConfigurationCache cc = plugin.getConfig(player);
 
         // Find out if checks need to be done for that player
-        if(cc.blockplace.check && !player.hasPermission(Permissions.BLOCKPLACE)) {
+        if(cc.blockplace.check && !player.hasPermission(CheckPermission.BLOCKPLACE)) {
             cancel = blockPlaceCheck.check(player, event.getBlockPlaced(), event.getBlockAgainst(), cc);
         }
 
@@ -14,8 +14,9 @@ import org.bukkit.event.entity.EntityListener;
 import org.bukkit.plugin.PluginManager;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.fight.FightCheck;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
@@ -61,12 +62,12 @@ public class EntityDamageEventManager extends EntityListener implements EventMan
         final Entity damagee = event.getEntity();
         // We can cast like crazy here because we ruled out all other
         // possibilities above
-        final Player player = (Player) ((EntityDamageByEntityEvent) event).getDamager();
+        final NoCheatPlayer player = plugin.getPlayer((Player) ((EntityDamageByEntityEvent) event).getDamager());
 
         final ConfigurationCache cc = plugin.getConfig(player);
 
         // Find out if checks need to be done for that player
-        if(cc.fight.check && !player.hasPermission(Permissions.FIGHT)) {
+        if(cc.fight.check && !player.hasPermission(CheckPermission.FIGHT)) {
 
             boolean cancel = false;
 
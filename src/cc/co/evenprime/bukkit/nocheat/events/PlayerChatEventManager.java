@@ -3,7 +3,6 @@ package cc.co.evenprime.bukkit.nocheat.events;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.Event.Priority;
 import org.bukkit.event.player.PlayerChatEvent;
@@ -12,8 +11,9 @@ import org.bukkit.event.player.PlayerListener;
 import org.bukkit.plugin.PluginManager;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.chat.ChatCheck;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
@@ -54,11 +54,26 @@ public class PlayerChatEventManager extends PlayerListener implements EventManag
         if(performanceCheck)
             nanoTimeStart = System.nanoTime();
 
-        final Player player = event.getPlayer();
-        final ConfigurationCache cc = plugin.getConfig(player);
+        final NoCheatPlayer player;
+        final ConfigurationCache cc;
+        final boolean exempt;
+
+        if(plugin.isMainThread()) {
+            player = plugin.getPlayer(event.getPlayer());
+            cc = plugin.getConfig(player);
+            exempt = !cc.chat.check || player.hasPermission(CheckPermission.CHAT);
+        } else {
+            // Other threads must not ask bukkit anything. They use what the
+            // main thread found out about the player the last time. If it
+            // didn't find out anything yet, the message gets checked with
+            // the global configuration and without permissions.
+            player = plugin.getPlayerFromAnyThread(event.getPlayer());
+            cc = plugin.getLastConfig(player);
+            exempt = !cc.chat.check || player.hasCachedPermission(CheckPermission.CHAT);
+        }
 
         // Find out if checks need to be done for that player
-        if(cc.chat.check && !player.hasPermission(Permissions.CHAT)) {
+        if(!exempt) {
 
             final boolean cancel = chatCheck.check(player, event.getMessage(), cc);
 
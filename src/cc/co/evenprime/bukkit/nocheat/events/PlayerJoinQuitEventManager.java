@@ -0,0 +1,48 @@
+package cc.co.evenprime.bukkit.nocheat.events;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.Event.Priority;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerListener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.PluginManager;
+
+import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
+
+/**
+ * Only place that listens to players joining and leaving the server, to set up
+ * and drop the handles that the checks use to access player data
+ * 
+ */
+public class PlayerJoinQuitEventManager extends PlayerListener implements EventManager {
+
+    private final NoCheat plugin;
+
+    public PlayerJoinQuitEventManager(NoCheat plugin) {
+
+        this.plugin = plugin;
+
+        PluginManager pm = plugin.getServer().getPluginManager();
+
+        pm.registerEvent(Event.Type.PLAYER_JOIN, this, Priority.Lowest, plugin);
+        pm.registerEvent(Event.Type.PLAYER_QUIT, this, Priority.Monitor, plugin);
+    }
+
+    @Override
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.playerJoined(event.getPlayer());
+    }
+
+    @Override
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.playerQuit(event.getPlayer());
+    }
+
+    public List<String> getActiveChecks(ConfigurationCache cc) {
+        return Collections.emptyList();
+    }
+}
@@ -4,7 +4,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.bukkit.Location;
-import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.Event.Priority;
 import org.bukkit.event.player.PlayerListener;
@@ -14,12 +13,14 @@ import org.bukkit.plugin.PluginManager;
 import org.bukkit.util.Vector;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.moving.RunFlyCheck;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
 import cc.co.evenprime.bukkit.nocheat.data.MovingData;
 import cc.co.evenprime.bukkit.nocheat.data.PreciseLocation;
+import cc.co.evenprime.bukkit.nocheat.debug.MoveTracer;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
@@ -34,6 +35,7 @@ public class PlayerMoveEventManager extends PlayerListener implements EventManag
 
     private final NoCheat     plugin;
     private final RunFlyCheck movingCheck;
+    private final MoveTracer  tracer;
 
     private final Performance movePerformance;
     private final Performance velocityPerformance;
@@ -42,6 +44,7 @@ public class PlayerMoveEventManager extends PlayerListener implements EventManag
 
         this.plugin = plugin;
         this.movingCheck = new RunFlyCheck(plugin);
+        this.tracer = plugin.getTracer();
 
         this.movePerformance = plugin.getPerformance(Type.MOVING);
         this.velocityPerformance = plugin.getPerformance(Type.VELOCITY);
@@ -67,37 +70,49 @@ public class PlayerMoveEventManager extends PlayerListener implements EventManag
             nanoTimeStart = System.nanoTime();
 
         // Get the world-specific configuration that applies here
-        final Player player = event.getPlayer();
+        final NoCheatPlayer player = plugin.getPlayer(event.getPlayer());
         final ConfigurationCache cc = plugin.getConfig(player);
+        final Location to = event.getTo();
+        boolean setBackUsed = false;
 
         // Find out if checks need to be done for that player
-        if(cc.moving.check && !player.hasPermission(Permissions.MOVE)) {
+        if(cc.moving.check && !player.hasPermission(CheckPermission.MOVE)) {
 
             // Get some data that's needed from this event, to avoid passing the
             // event itself on to the checks (and risk to
             // accidentally modifying the event there)
-            final BaseData data = plugin.getData(player.getName());
-            final MovingData moving = data.moving;
+            final BaseData data = player.getData();
 
-            final Location to = event.getTo();
+            final MovingData moving = data.moving;
 
             moving.from.set(event.getFrom());
             moving.to.set(to);
 
             // This variable will have the modified data of the event (new
             // "to"-location)
-            final PreciseLocation newTo = movingCheck.check(player, data, cc);
+            final PreciseLocation newTo = movingCheck.check(player, cc);
 
             // Did the check(s) decide we need a new "to"-location?
             if(newTo != null) {
                 // Compose a new location based on coordinates of "newTo" and
-                // viewing direction of "event.getTo()"
-                event.setTo(new Location(player.getWorld(), newTo.x, newTo.y, newTo.z, to.getYaw(), to.getPitch()));
+                // viewing direction of "event.getTo()". It has to be a new
+                // object, other plugins may keep it and bukkit won't notice
+                // a change of "event.getTo()" itself. Setbacks are rare, so
+                // creating it doesn't matter.
+                event.setTo(new Location(to.getWorld(), newTo.x, newTo.y, newTo.z, to.getYaw(), to.getPitch()));
 
                 data.moving.teleportTo.set(newTo);
+                setBackUsed = true;
             }
         }
 
+        if(tracer.isTracing()) {
+            tracer.move(player, event.getFrom(), to, setBackUsed);
+        }
+
+        // The player is somewhere else now
+        player.getData().snapshot.invalidate();
+
         // store performance time
         if(performanceCheck)
             movePerformance.addTime(System.nanoTime() - nanoTimeStart);
@@ -115,10 +130,14 @@ public class PlayerMoveEventManager extends PlayerListener implements EventManag
         if(performanceCheck)
             nanoTimeStart = System.nanoTime();
 
-        BaseData data = plugin.getData(event.getPlayer().getName());
+        final BaseData data = plugin.getPlayer(event.getPlayer()).getData();
 
         Vector v = event.getVelocity();
 
+        if(tracer.isTracing()) {
+            tracer.velocity(event.getPlayer(), v);
+        }
+
         double newVal = v.getY();
         if(newVal >= 0.0D) {
             data.moving.vertVelocity += newVal;
@@ -3,6 +3,8 @@ package cc.co.evenprime.bukkit.nocheat.events;
 import java.util.Collections;
 import java.util.List;
 
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.Event.Priority;
 import org.bukkit.event.player.PlayerListener;
@@ -13,8 +15,10 @@ import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.plugin.PluginManager;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.data.BaseData;
+import cc.co.evenprime.bukkit.nocheat.debug.MoveTracer;
 
 /**
  * Only place that listens to Player-teleport related events and dispatches them
@@ -47,7 +51,7 @@ public class PlayerTeleportEventManager extends PlayerListener implements EventM
                     return;
                 }
 
-                final BaseData data = plugin.getData(event.getPlayer().getName());
+                final BaseData data = plugin.getPlayer(event.getPlayer()).getData();
 
                 if(data.moving.teleportTo.isSet() && data.moving.teleportTo.equals(event.getTo())) {
                     event.setCancelled(false);
@@ -61,18 +65,28 @@ public class PlayerTeleportEventManager extends PlayerListener implements EventM
         if(event.isCancelled())
             return;
 
-        handleTeleportation(event.getPlayer().getName());
+        handleTeleportation(event.getPlayer(), changesWorld(event));
+        trace(event.getPlayer(), event.getTo());
     }
 
     public void onPlayerPortal(PlayerPortalEvent event) {
         if(event.isCancelled())
             return;
 
-        handleTeleportation(event.getPlayer().getName());
+        handleTeleportation(event.getPlayer(), changesWorld(event));
+        trace(event.getPlayer(), event.getTo());
     }
 
     public void onPlayerRespawn(PlayerRespawnEvent event) {
-        handleTeleportation(event.getPlayer().getName());
+        handleTeleportation(event.getPlayer(), true);
+        trace(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    private void trace(Player player, Location to) {
+        final MoveTracer tracer = plugin.getTracer();
+        if(tracer.isTracing() && to != null) {
+            tracer.teleport(player, to);
+        }
     }
 
     // Workaround for buggy Playermove cancelling
@@ -81,12 +95,23 @@ public class PlayerTeleportEventManager extends PlayerListener implements EventM
             return;
         }
 
-        handleTeleportation(event.getPlayer().getName());
+        handleTeleportation(event.getPlayer(), false);
     }
 
-    private void handleTeleportation(String playerName) {
+    private void handleTeleportation(Player player, boolean worldChange) {
+
+        final NoCheatPlayer p = plugin.getPlayer(player);
+
+        p.getData().clearCriticalData();
+
+        // Permissions may be different in the new world
+        if(worldChange) {
+            p.expirePermissions();
+        }
+    }
 
-        plugin.clearCriticalData(playerName);
+    private static boolean changesWorld(PlayerTeleportEvent event) {
+        return event.getTo() == null || event.getFrom().getWorld() != event.getTo().getWorld();
     }
 
     public List<String> getActiveChecks(ConfigurationCache cc) {
@@ -1,32 +1,64 @@
 package cc.co.evenprime.bukkit.nocheat.events;
 
 import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
 import java.util.LinkedList;
 import java.util.List;
 
-import net.minecraft.server.EntityPlayer;
-
-import org.bukkit.craftbukkit.CraftServer;
-import org.bukkit.craftbukkit.entity.CraftEntity;
 import org.bukkit.entity.Player;
 
 import cc.co.evenprime.bukkit.nocheat.NoCheat;
+import cc.co.evenprime.bukkit.nocheat.NoCheatPlayer;
 import cc.co.evenprime.bukkit.nocheat.checks.timed.TimedCheck;
-import cc.co.evenprime.bukkit.nocheat.config.Permissions;
+import cc.co.evenprime.bukkit.nocheat.config.CheckPermission;
 import cc.co.evenprime.bukkit.nocheat.config.cache.ConfigurationCache;
 import cc.co.evenprime.bukkit.nocheat.debug.Performance;
 import cc.co.evenprime.bukkit.nocheat.debug.PerformanceManager.Type;
 
+/**
+ * Runs the timed checks. All online players are kept in a ring, and every
+ * tick the next few of them get checked. How many depends on how many players
+ * are online and how much time the checks take, but every player gets checked
+ * at least every "maxInterval" ticks.
+ * 
+ */
 public class TimedEventManager implements EventManager {
 
-    private final NoCheat     plugin;
+    // Check every player this often, if there is time for it
+    private final static int     preferredInterval = 10;
+
+    // Check every player at least this often, no matter how long it takes
+    private final static int     maxInterval       = 40;
+
+    // How long the checks may take per tick, beyond what's needed to
+    // keep "maxInterval"
+    private final static long    budget            = 1000000L;
+
+    /**
+     * A player in the ring and the tick when he was checked the last time
+     */
+    private static final class Entry {
+
+        private final Player player;
+        private int          lastTick;
+
+        private Entry(Player player, int tick) {
+            this.player = player;
+            this.lastTick = tick;
+        }
+    }
+
+    private final NoCheat        plugin;
+
+    private final TimedCheck     check;
 
-    private final TimedCheck  check;
+    private final Performance    timedPerformance;
 
-    private final Performance timedPerformance;
+    // Only accessed by the main thread
+    private final List<Entry>    ring              = new ArrayList<Entry>();
+    private int                  cursor            = 0;
+    private int                  tick              = 0;
 
-    public int                taskId = -1;
+    public int                   taskId            = -1;
 
     public TimedEventManager(final NoCheat plugin) {
         this.plugin = plugin;
@@ -35,55 +67,97 @@ public class TimedEventManager implements EventManager {
 
         this.timedPerformance = plugin.getPerformance(Type.TIMED);
 
+        // Players that are already online, e.g. after a reload
+        for(Player player : plugin.getServer().getOnlinePlayers()) {
+            ring.add(new Entry(player, tick));
+        }
+
         // "register a listener" for passed time
         taskId = plugin.getServer().getScheduler().scheduleSyncRepeatingTask(plugin, new Runnable() {
 
-            private int                      executions = 0;
-            private int                      loopsize   = 10;
+            public void run() {
+                tick++;
+                checkNextPlayers();
+            }
+        }, 0, 1);
+    }
 
-            private final List<EntityPlayer> entities   = new ArrayList<EntityPlayer>(20);
+    /**
+     * Add a player to the ring, called by NoCheat when a player joins
+     */
+    public void playerJoined(Player player) {
+        ring.add(new Entry(player, tick));
+    }
 
-            @SuppressWarnings("unchecked")
-            public void run() {
+    /**
+     * Remove a player from the ring, called by NoCheat when a player leaves
+     */
+    public void playerQuit(Player player) {
 
-                executions++;
+        for(int i = 0; i < ring.size(); i++) {
+            if(ring.get(i).player == player) {
+                ring.remove(i);
 
-                if(executions >= loopsize) {
-                    executions = 0;
+                // Keep the cursor on the player that would have been next
+                if(i < cursor) {
+                    cursor--;
                 }
+                return;
+            }
+        }
+    }
 
-                // For performance reasons, we take some shortcuts here
-                CraftServer server = (CraftServer) plugin.getServer();
-
-                try {
-                    // Only collect the entities that we want to check this time
-                    for(EntityPlayer p : (List<EntityPlayer>) server.getHandle().players) {
-                        if(p.id % loopsize == executions) {
-                            entities.add(p);
-                        }
-                    }
-                } catch(ConcurrentModificationException e) {
-                    // Bad luck, better luck next time
-                } catch(Exception e) {
-                    e.printStackTrace();
-                }
+    /**
+     * Check as many players as needed to visit all of them within
+     * "maxInterval" ticks, and more, up to "preferredInterval", while the time
+     * budget for this tick isn't used up
+     */
+    private void checkNextPlayers() {
 
-                // Now initialize the checks one by one
-                for(EntityPlayer p : entities) {
-                    try {
-                        onTimedEvent((Player) CraftEntity.getEntity(server, p), loopsize);
-                    } catch(Exception e) {
-                        e.printStackTrace();
-                    }
-                }
+        final int size = ring.size();
+
+        if(size == 0)
+            return;
+
+        final int minimum = (size + maxInterval - 1) / maxInterval;
+        final int preferred = (size + preferredInterval - 1) / preferredInterval;
 
-                // Clear the list for next time
-                entities.clear();
+        final long start = System.nanoTime();
+
+        for(int visited = 0; visited < preferred; visited++) {
+
+            if(visited >= minimum && System.nanoTime() - start > budget) {
+                break;
             }
-        }, 0, 1);
+
+            // A check may have caused players to leave
+            if(ring.isEmpty()) {
+                break;
+            }
+
+            if(cursor >= ring.size()) {
+                cursor = 0;
+            }
+
+            final Entry entry = ring.get(cursor++);
+            final int elapsedTicks = tick - entry.lastTick;
+
+            // Joined just now, nothing to check yet
+            if(elapsedTicks <= 0) {
+                continue;
+            }
+
+            entry.lastTick = tick;
+
+            try {
+                onTimedEvent(plugin.getPlayer(entry.player), elapsedTicks);
+            } catch(Exception e) {
+                e.printStackTrace();
+            }
+        }
     }
 
-    public void onTimedEvent(Player player, int elapsedTicks) {
+    public void onTimedEvent(NoCheatPlayer player, int elapsedTicks) {
 
         // Performance counter setup
         long nanoTimeStart = 0;
@@ -94,7 +168,7 @@ public class TimedEventManager implements EventManager {
 
         ConfigurationCache cc = plugin.getConfig(player);
 
-        if(cc.timed.check && !player.hasPermission(Permissions.TIMED)) {
+        if(cc.timed.check && !player.hasPermission(CheckPermission.TIMED)) {
             check.check(player, elapsedTicks, cc);
         }
 
@@ -0,0 +1,365 @@
+package cc.co.evenprime.bukkit.nocheat.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write log messages to a file in a background thread, so that writing to the
+ * disk never slows down the server. Messages wait in a queue of limited size
+ * and get written in batches. If the queue is full, the overflow policy
+ * decides what happens.
+ *
+ * Messages wait in one queue per log level, so that the oldest message or the
+ * oldest message of the lowest level can be dropped without searching for
+ * it. The file gets opened by "start", which allows to queue messages before
+ * the previous writer of the same file got closed.
+ *
+ */
+public class LogFileWriter {
+
+    /**
+     * What to do with new messages if the queue is full
+     */
+    public enum OverflowPolicy {
+
+        DROPOLDEST("dropoldest"), DROPLOWEST("droplowest"), BLOCK("block");
+
+        public final String name;
+
+        private OverflowPolicy(String name) {
+            this.name = name;
+        }
+
+        public static OverflowPolicy getOverflowPolicyFromString(String s) {
+            for(OverflowPolicy p : values()) {
+                if(p.name.equalsIgnoreCase(s)) {
+                    return p;
+                }
+            }
+
+            throw new IllegalArgumentException("Unknown overflow policy " + s);
+        }
+
+        public String toString() {
+            return this.name;
+        }
+    }
+
+    private static final class Entry {
+
+        private final long     sequence;
+        private final long     time;
+        private final LogLevel level;
+        private final String   message;
+
+        private Entry(long sequence, long time, LogLevel level, String message) {
+            this.sequence = sequence;
+            this.time = time;
+            this.level = level;
+            this.message = message;
+        }
+    }
+
+    // Restores the order in which messages were logged
+    private static final Comparator<Entry> bySequence = new Comparator<Entry>() {
+
+        public int compare(Entry e1, Entry e2) {
+            return e1.sequence < e2.sequence ? -1 : (e1.sequence == e2.sequence ? 0 : 1);
+        }
+    };
+
+    // The thread that must never wait for room in the queue
+    private static volatile Thread mainThread;
+
+    private final File             file;
+    private final int              capacity;
+    private final OverflowPolicy   policy;
+
+    // One queue per LogLevel, indexed by ordinal, lowest level first
+    private final Queue<Entry>[]   queues;
+    private final AtomicInteger    size     = new AtomicInteger();
+    private final AtomicLong       sequence = new AtomicLong();
+
+    // How many messages got dropped since the last batch was written
+    private final AtomicInteger    dropped  = new AtomicInteger();
+    private volatile boolean       running  = true;
+    private volatile Thread        thread;
+
+    // Only used by the writer thread. Formatting the date is expensive, so
+    // only do it once per second
+    private final SimpleDateFormat dateFormat;
+    private long                   lastSecond = -1;
+    private String                 lastDate;
+
+    @SuppressWarnings("unchecked")
+    public LogFileWriter(File file, int queueSize, OverflowPolicy policy) {
+
+        this.file = file;
+        this.capacity = Math.max(1, queueSize);
+        this.policy = policy;
+        this.dateFormat = new SimpleDateFormat("yy.MM.dd HH:mm:ss");
+
+        this.queues = new Queue[LogLevel.values().length];
+        for(int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<Entry>();
+        }
+    }
+
+    /**
+     * Tell all writers which thread is the main thread of the server. That
+     * thread never waits for room in a queue, not even with the "block"
+     * policy.
+     */
+    public static void setMainThread(Thread thread) {
+        mainThread = thread;
+    }
+
+    /**
+     * Open the file and start writing the queued messages to it
+     */
+    public synchronized void start() throws IOException {
+
+        if(thread != null || !running)
+            return;
+
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true)), 64 * 1024);
+
+        thread = new Thread(new Runnable() {
+
+            public void run() {
+                writeLoop(writer);
+            }
+        }, "NoCheat log writer (" + file.getName() + ")");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a message to be written to the file. Can be called by any thread.
+     *
+     * @param level
+     * @param message
+     */
+    public void log(LogLevel level, String message) {
+
+        if(!running)
+            return;
+
+        final Entry entry = new Entry(sequence.incrementAndGet(), System.currentTimeMillis(), level, message);
+
+        while(size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+
+            if(!makeRoom(entry)) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+
+        final boolean wasEmpty = size.get() == 1;
+
+        queues[level.ordinal()].offer(entry);
+
+        // Only wake up the writer if it may be sleeping
+        if(wasEmpty) {
+            final Thread t = thread;
+            if(t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    /**
+     * The queue is full, try to make room for the new message
+     *
+     * @return false if the new message should be dropped instead
+     */
+    private boolean makeRoom(Entry entry) {
+
+        switch (policy) {
+        case BLOCK:
+            if(Thread.currentThread() != mainThread && running && thread != null) {
+                // Wait a moment for the writer to catch up
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+                return true;
+            }
+            // The main thread doesn't wait, it drops the oldest instead
+            return dropOldest();
+        case DROPLOWEST:
+            return dropLowest(entry.level);
+        case DROPOLDEST:
+        default:
+            return dropOldest();
+        }
+    }
+
+    /**
+     * Remove the oldest waiting message, by comparing the first message of
+     * each level
+     */
+    private boolean dropOldest() {
+
+        Queue<Entry> oldest = null;
+        long oldestSequence = Long.MAX_VALUE;
+
+        for(Queue<Entry> queue : queues) {
+            final Entry e = queue.peek();
+            if(e != null && e.sequence < oldestSequence) {
+                oldest = queue;
+                oldestSequence = e.sequence;
+            }
+        }
+
+        if(oldest != null && oldest.poll() != null) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+
+        // Either room was made or the writer took messages in the meantime
+        return true;
+    }
+
+    /**
+     * Remove the oldest waiting message with the lowest level, if its level
+     * is lower than "level"
+     *
+     * @return true if room was made for the new message
+     */
+    private boolean dropLowest(LogLevel level) {
+
+        for(Queue<Entry> queue : queues) {
+            final Entry e = queue.peek();
+
+            if(e == null)
+                continue;
+
+            if(e.level.level.intValue() >= level.level.intValue())
+                return false;
+
+            if(queue.poll() != null) {
+                size.decrementAndGet();
+                dropped.incrementAndGet();
+            }
+
+            return true;
+        }
+
+        // The queues got emptied in the meantime, try again
+        return true;
+    }
+
+    private void writeLoop(Writer writer) {
+
+        final List<Entry> batch = new ArrayList<Entry>();
+        final StringBuilder builder = new StringBuilder(8 * 1024);
+
+        while(running || size.get() > 0) {
+
+            for(Queue<Entry> queue : queues) {
+                Entry e;
+                while((e = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    batch.add(e);
+                }
+            }
+
+            if(batch.isEmpty()) {
+                if(running) {
+                    LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+                }
+                continue;
+            }
+
+            Collections.sort(batch, bySequence);
+
+            try {
+                write(writer, batch, builder);
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+
+            batch.clear();
+            builder.setLength(0);
+        }
+
+        try {
+            writer.close();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void write(Writer writer, List<Entry> batch, StringBuilder builder) throws IOException {
+
+        final int droppedMessages = dropped.getAndSet(0);
+
+        if(droppedMessages > 0) {
+            appendDate(builder, batch.get(0).time);
+            builder.append(" [WARNING] ").append(droppedMessages).append(" log messages were dropped, because they came in faster than they could be written\n");
+        }
+
+        for(Entry entry : batch) {
+            appendDate(builder, entry.time);
+            builder.append(" [");
+            builder.append(entry.level.level.getLocalizedName().toUpperCase());
+            builder.append("] ");
+            builder.append(entry.message);
+            builder.append('\n');
+        }
+
+        writer.write(builder.toString());
+        writer.flush();
+    }
+
+    private void appendDate(StringBuilder builder, long time) {
+
+        final long second = time / 1000;
+
+        if(second != lastSecond) {
+            lastSecond = second;
+            lastDate = dateFormat.format(time);
+        }
+
+        builder.append(lastDate);
+    }
+
+    /**
+     * Write all queued messages and close the file. Blocks until done, or a
+     * few seconds passed.
+     */
+    public void close() {
+
+        final Thread t;
+
+        synchronized(this) {
+            running = false;
+            t = thread;
+        }
+
+        if(t == null)
+            return;
+
+        LockSupport.unpark(t);
+
+        try {
+            t.join(5000);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
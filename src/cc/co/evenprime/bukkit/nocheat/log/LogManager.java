@@ -33,12 +33,18 @@ public class LogManager {
         if(!cc.logging.active)
             return;
 
+        // File and console get the same message without colors
+        String plainMessage = null;
+
         if(cc.logging.fileLevel.matches(level)) {
-            logToFile(level, ChatColor.stripColor(message), cc.logging.filelogger);
+            plainMessage = ChatColor.stripColor(message);
+            logToFile(level, plainMessage, cc.logging.filelogger);
         }
 
         if(cc.logging.consoleLevel.matches(level)) {
-            logToConsole(level, ChatColor.stripColor(message));
+            if(plainMessage == null)
+                plainMessage = ChatColor.stripColor(message);
+            logToConsole(level, plainMessage);
         }
 
         if(cc.logging.chatLevel.matches(level)) {
@@ -46,6 +52,22 @@ public class LogManager {
         }
     }
 
+    /**
+     * Check if a message of that level would get logged anywhere, to avoid
+     * creating messages that nobody will see
+     * 
+     * @param level
+     * @param cc
+     * @return
+     */
+    public boolean isLogged(LogLevel level, ConfigurationCache cc) {
+
+        if(!cc.logging.active)
+            return false;
+
+        return cc.logging.fileLevel.matches(level) || cc.logging.consoleLevel.matches(level) || cc.logging.chatLevel.matches(level);
+    }
+
     /**
      * Directly log to the server console, no checks
      * 
@@ -77,7 +99,9 @@ public class LogManager {
      * @param message
      * @param fileLogger
      */
-    private void logToFile(LogLevel level, String message, Logger fileLogger) {
-        fileLogger.log(level.level, message);
+    private void logToFile(LogLevel level, String message, LogFileWriter fileLogger) {
+        // The file may not have been opened
+        if(fileLogger != null)
+            fileLogger.log(level, message);
     }
 }